@@ -2,18 +2,33 @@ package ru.practicum.shareit.booking;
 
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.apache.http.client.HttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerTransportFactory;
 
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
@@ -21,43 +36,121 @@ public class BookingClient extends BaseClient {
     static String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         HttpClient httpClient, ServerTransportFactory transports) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                        .build(),
+                transports
         );
     }
 
-    public ResponseEntity<Object> getAllByUser(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public CompletableFuture<ResponseEntity<Object>> getAllByUser(
+            long userId,
+            BookingState state,
+            Integer from,
+            Integer size,
+            @Nullable String cursor) {
+        return getPage("", userId, state, from, size, cursor);
     }
 
-    public ResponseEntity<Object> getAllByOwner(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public CompletableFuture<ResponseEntity<Object>> getAllByOwner(
+            long userId,
+            BookingState state,
+            Integer from,
+            Integer size,
+            @Nullable String cursor) {
+        return getPage("/owner", userId, state, from, size, cursor);
     }
 
-    public ResponseEntity<Object> create(long userId, BookItemRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getById(long userId, Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> getById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> confirmRequest(long userId, Long bookingId, Boolean approved) {
+    public CompletableFuture<ResponseEntity<Object>> confirmRequest(long userId, Long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
+
+    public CompletableFuture<ResponseEntity<Object>> confirmRequests(long userId, BookingDecisionDto decision) {
+        return patch("/bulk", userId, decision);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> countByUser(long userId) {
+        return get("/counts", userId);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> countByOwner(long userId) {
+        return get("/owner/counts", userId);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportByUser(long userId, BookingState state) {
+        return export("/export", userId, state);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportByOwner(long userId, BookingState state) {
+        return export("/owner/export", userId, state);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String path, long userId, BookingState state) {
+        URI uri = rest.getUriTemplateHandler().expand(path + "?state={state}", state.name());
+        ClientHttpResponse response;
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+            request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+            response = request.execute();
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+        try {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getRawStatusCode());
+            MediaType contentType = response.getHeaders().getContentType();
+            if (contentType != null) {
+                builder.contentType(contentType);
+            }
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                byte[] error = StreamUtils.copyToByteArray(response.getBody());
+                response.close();
+                return builder.body(out -> out.write(error));
+            }
+            return builder.body(out -> {
+                try (response) {
+                    StreamUtils.copy(response.getBody(), out);
+                }
+            });
+        } catch (IOException e) {
+            response.close();
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> getPage(
+            String path,
+            long userId,
+            BookingState state,
+            Integer from,
+            Integer size,
+            @Nullable String cursor) {
+        if (cursor == null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "from", from,
+                    "size", size
+            );
+            return get(path + "?state={state}&from={from}&size={size}", userId, parameters);
+        }
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "size", size,
+                "cursor", cursor
+        );
+        return get(path + "?state={state}&size={size}&cursor={cursor}", userId, parameters);
+    }
 }
@@ -7,12 +7,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.validation.Create;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -23,41 +26,75 @@ public class BookingController {
     BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllByUser(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "state", defaultValue = "all") String stateParam,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam);
-        return bookingClient.getAllByUser(userId, state, from, size);
+        return bookingClient.getAllByUser(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                                @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                Integer from,
-                                                @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllByOwner(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "state", defaultValue = "all") String stateParam,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam);
-        return bookingClient.getAllByOwner(userId, state, from, size);
+        return bookingClient.getAllByOwner(userId, state, from, size, cursor);
+    }
+
+    @GetMapping("/counts")
+    public CompletableFuture<ResponseEntity<Object>> countByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingClient.countByUser(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public CompletableFuture<ResponseEntity<Object>> countByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingClient.countByOwner(userId);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                              @RequestParam(name = "state", defaultValue = "all")
+                                                              String stateParam) {
+        return bookingClient.exportByUser(userId, BookingState.from(stateParam));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                               @RequestParam(name = "state", defaultValue = "all")
+                                                               String stateParam) {
+        return bookingClient.exportByOwner(userId, BookingState.from(stateParam));
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @Validated({Create.class}) @RequestBody BookItemRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @Validated({Create.class}) @RequestBody BookItemRequestDto requestDto) {
         return bookingClient.create(userId, requestDto);
     }
 
+    @PatchMapping("/bulk")
+    public CompletableFuture<ResponseEntity<Object>> confirmRequests(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @Validated({Create.class}) @RequestBody BookingDecisionDto decision) {
+        return bookingClient.confirmRequests(userId, decision);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                          @PathVariable Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> getById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                             @PathVariable Long bookingId) {
         return bookingClient.getById(userId, bookingId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> confirmRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                 @PathVariable Long bookingId,
-                                                 @RequestParam Boolean approved) {
+    public CompletableFuture<ResponseEntity<Object>> confirmRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                    @PathVariable Long bookingId,
+                                                                    @RequestParam Boolean approved) {
         return bookingClient.confirmRequest(userId, bookingId, approved);
     }
 }
\ No newline at end of file
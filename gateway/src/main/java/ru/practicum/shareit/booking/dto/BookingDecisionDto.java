@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.validation.Create;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingDecisionDto {
+    @NotEmpty(groups = {Create.class})
+    @Size(max = 100, groups = {Create.class})
+    List<@NotNull(groups = {Create.class}) Long> ids;
+    @NotNull(groups = {Create.class})
+    Boolean approved;
+}
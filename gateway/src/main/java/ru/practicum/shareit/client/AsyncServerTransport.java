@@ -0,0 +1,98 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.util.UriTemplateHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/*
+ * Forwards requests over the JDK's non-blocking HttpClient. The server's response is relayed as raw bytes with
+ * its status and headers, so nothing is parsed on the way back.
+ */
+public class AsyncServerTransport implements ServerTransport {
+    private final HttpClient httpClient;
+    private final UriTemplateHandler uriTemplateHandler;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final InFlightLimit limit;
+
+    public AsyncServerTransport(HttpClient httpClient, UriTemplateHandler uriTemplateHandler,
+                                ObjectMapper objectMapper, Duration timeout, InFlightLimit limit) {
+        this.httpClient = httpClient;
+        this.uriTemplateHandler = uriTemplateHandler;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.limit = limit;
+    }
+
+    @Override
+    public <T> CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, String path,
+                                                                  @Nullable Long userId,
+                                                                  @Nullable Map<String, Object> parameters,
+                                                                  @Nullable T body, HttpHeaders headers) {
+        URI uri = parameters != null ? uriTemplateHandler.expand(path, parameters) : uriTemplateHandler.expand(path);
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .method(method.name(), body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(write(body)));
+        if (userId != null) {
+            request.header("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        headers.forEach((name, values) -> values.forEach(value -> request.header(name, value)));
+        return limit.submit(() -> httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray()))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw new CompletionException(resourceAccessException(method, uri, unwrap(error)));
+                    }
+                    return toGatewayResponse(response);
+                });
+    }
+
+    private byte[] write(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static ResponseEntity<Object> toGatewayResponse(HttpResponse<byte[]> response) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.statusCode())
+                .headers(RelayedHeaders.of(response.headers().map()));
+        if (response.body().length == 0) {
+            return builder.build();
+        }
+        return builder.body(response.body());
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static RuntimeException resourceAccessException(HttpMethod method, URI uri, Throwable error) {
+        if (error instanceof IOException) {
+            return new ResourceAccessException("I/O error on " + method + " request for \"" + uri + "\": " +
+                    error.getMessage(), (IOException) error);
+        }
+        return error instanceof RuntimeException ? (RuntimeException) error : new IllegalStateException(error);
+    }
+}
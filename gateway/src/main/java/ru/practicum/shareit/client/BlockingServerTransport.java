@@ -0,0 +1,69 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.*;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Exchanges into byte[] so the server's JSON is relayed as it came, with its status and content headers,
+ * instead of being parsed into maps and written again.
+ */
+public class BlockingServerTransport implements ServerTransport {
+    private final RestTemplate rest;
+
+    public BlockingServerTransport(RestTemplate rest) {
+        this.rest = rest;
+    }
+
+    @Override
+    public <T> CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, String path,
+                                                                  @Nullable Long userId,
+                                                                  @Nullable Map<String, Object> parameters,
+                                                                  @Nullable T body, HttpHeaders headers) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId, headers));
+
+        ResponseEntity<byte[]> shareitServerResponse;
+        try {
+            if (parameters != null) {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
+            } else {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
+            }
+        } catch (HttpStatusCodeException e) {
+            return CompletableFuture.completedFuture(prepareGatewayResponse(e.getRawStatusCode(),
+                    e.getResponseHeaders(), e.getResponseBodyAsByteArray()));
+        }
+        return CompletableFuture.completedFuture(prepareGatewayResponse(shareitServerResponse.getStatusCodeValue(),
+                shareitServerResponse.getHeaders(), shareitServerResponse.getBody()));
+    }
+
+    private HttpHeaders defaultHeaders(Long userId, HttpHeaders extra) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        headers.addAll(extra);
+        return headers;
+    }
+
+    private static ResponseEntity<Object> prepareGatewayResponse(int status, @Nullable HttpHeaders headers,
+                                                                 @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status);
+        if (headers != null) {
+            responseBuilder.headers(RelayedHeaders.of(headers));
+        }
+
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
+        }
+
+        return responseBuilder.build();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.MicrometerHttpRequestExecutor;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * One connection pool to the ShareIt server shared by every client of the gateway. Connections are kept alive
+ * and reused across clients, idle ones are evicted in the background, and every phase of a call is bounded:
+ * waiting for a pooled connection, connecting, and waiting for the next bytes of a response.
+ */
+@Configuration
+public class HttpTransportConfig {
+    static String POOL_NAME = "shareit-server";
+
+    @Bean(destroyMethod = "close")
+    public MeteredConnectionManager shareitServerConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${shareit-server.http.max-connections:200}") int maxConnections,
+            @Value("${shareit-server.http.max-connections-per-route:100}") int maxConnectionsPerRoute,
+            @Value("${shareit-server.http.time-to-live:5m}") Duration timeToLive,
+            @Value("${shareit-server.http.validate-after-inactivity:2s}") Duration validateAfterInactivity) {
+        MeteredConnectionManager connectionManager =
+                new MeteredConnectionManager(timeToLive, meterRegistry, POOL_NAME);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setValidateAfterInactivity((int) validateAfterInactivity.toMillis());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient shareitServerHttpClient(
+            MeteredConnectionManager shareitServerConnectionManager,
+            MeterRegistry meterRegistry,
+            @Value("${shareit-server.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.http.connection-request-timeout:2s}") Duration connectionRequestTimeout,
+            @Value("${shareit-server.http.socket-timeout:60s}") Duration socketTimeout,
+            @Value("${shareit-server.http.keep-alive:30s}") Duration keepAlive,
+            @Value("${shareit-server.http.idle-timeout:30s}") Duration idleTimeout) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setConnectionRequestTimeout((int) connectionRequestTimeout.toMillis())
+                .setSocketTimeout((int) socketTimeout.toMillis())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(shareitServerConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> Math.min(keepAlive.toMillis(),
+                        positiveOr(DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context),
+                                keepAlive.toMillis())))
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .setRequestExecutor(MicrometerHttpRequestExecutor.builder(meterRegistry)
+                        .tags(MeteredConnectionManager.poolTags(POOL_NAME))
+                        .build())
+                .build();
+    }
+
+    private static long positiveOr(long value, long fallback) {
+        return value > 0 ? value : fallback;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.client;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/*
+ * Caps the number of calls in flight without blocking: calls over the limit wait in a queue and are started by
+ * whichever call finishes next. Every enqueue and every release drains the queue, so no waiting call is missed.
+ * Only one drain runs at a time: a call that completes while being started releases its permit and leaves the
+ * next call to the running drain loop, instead of starting it one stack frame deeper.
+ */
+public class InFlightLimit {
+    private final Semaphore permits;
+    private final Queue<Runnable> waiting;
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    public InFlightLimit(int maxInFlight) {
+        this(maxInFlight, new ConcurrentLinkedQueue<>());
+    }
+
+    InFlightLimit(int maxInFlight, Queue<Runnable> waiting) {
+        this.permits = new Semaphore(maxInFlight);
+        this.waiting = waiting;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        waiting.add(() -> {
+            CompletableFuture<T> started;
+            try {
+                started = call.get();
+            } catch (RuntimeException e) {
+                release();
+                result.completeExceptionally(e);
+                return;
+            }
+            started.whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        drain();
+        return result;
+    }
+
+    private void release() {
+        permits.release();
+        drain();
+    }
+
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (!waiting.isEmpty() && permits.tryAcquire()) {
+                Runnable next = waiting.poll();
+                if (next == null) {
+                    permits.release();
+                    break;
+                }
+                next.run();
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Pooling connection manager that times how long callers wait to lease a connection. Together with the pool
+ * gauges this shows whether the pool is saturated: pending leases pile up and the lease time grows.
+ */
+public class MeteredConnectionManager extends PoolingHttpClientConnectionManager {
+    private final Timer leaseTime;
+
+    public MeteredConnectionManager(Duration timeToLive, MeterRegistry meterRegistry, String poolName) {
+        super(timeToLive.toMillis(), TimeUnit.MILLISECONDS);
+        this.leaseTime = Timer.builder("httpcomponents.httpclient.pool.lease")
+                .description("Time spent waiting for a pooled connection")
+                .tags(poolTags(poolName))
+                .register(meterRegistry);
+    }
+
+    static Tags poolTags(String poolName) {
+        return Tags.of("httpclient", poolName);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit unit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return request.get(timeout, unit);
+                } finally {
+                    leaseTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+}
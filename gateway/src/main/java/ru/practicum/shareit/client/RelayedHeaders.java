@@ -0,0 +1,29 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Server response headers worth passing on to the caller: everything except the hop-by-hop ones and the
+ * framing headers, which the gateway's own container sets for the relayed body.
+ */
+final class RelayedHeaders {
+    static Set<String> SKIPPED = Set.of("connection", "keep-alive", "transfer-encoding", "content-length",
+            "upgrade", "proxy-connection", "te", "trailer");
+
+    private RelayedHeaders() {
+    }
+
+    static HttpHeaders of(Map<String, List<String>> serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        serverHeaders.forEach((name, values) -> {
+            if (!name.startsWith(":") && !SKIPPED.contains(name.toLowerCase())) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/*
+ * Server responses to cacheable GETs, kept with their ETag. A cached response is never served blindly: every
+ * call revalidates it with If-None-Match, and a 304 from the server is answered from the cache without the body
+ * crossing the wire again. Writes through the gateway drop the entries of the resources they change.
+ */
+@Component
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ResponseCache {
+    static String NAME = "gateway-responses";
+    Cache<Key, CachedResponse> responses;
+    Counter hits;
+    Counter misses;
+    Counter bytesSaved;
+
+    public ResponseCache(MeterRegistry meterRegistry,
+                         @Value("${shareit-server.cache.max-size:64MB}") DataSize maxSize,
+                         @Value("${shareit-server.cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, CachedResponse response) -> response.getBody().length)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, NAME);
+        this.hits = Counter.builder("gateway.response.cache.requests")
+                .description("Cacheable reads by whether the server confirmed the cached body")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("gateway.response.cache.requests")
+                .description("Cacheable reads by whether the server confirmed the cached body")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.bytesSaved = Counter.builder("gateway.response.cache.bytes.saved")
+                .description("Response bytes served from the cache instead of the server")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> get(
+            URI uri, @Nullable Long userId,
+            Function<HttpHeaders, CompletableFuture<ResponseEntity<Object>>> exchange) {
+        Key key = new Key(uri.getPath(), uri.toString(), userId);
+        CachedResponse cached = responses.getIfPresent(key);
+        HttpHeaders conditions = new HttpHeaders();
+        if (cached != null) {
+            conditions.setIfNoneMatch(cached.getETag());
+        }
+        return exchange.apply(conditions).thenApply(response -> update(key, cached, response));
+    }
+
+    public void invalidate(URI resource) {
+        String path = resource.getPath();
+        responses.asMap().keySet().removeIf(key -> key.getResource().equals(path));
+    }
+
+    private ResponseEntity<Object> update(Key key, @Nullable CachedResponse cached, ResponseEntity<Object> response) {
+        if (cached != null && response.getStatusCodeValue() == HttpStatus.NOT_MODIFIED.value()) {
+            hits.increment();
+            bytesSaved.increment(cached.getBody().length);
+            return cached.toResponseEntity();
+        }
+        misses.increment();
+        String eTag = response.getHeaders().getETag();
+        if (response.getStatusCodeValue() == HttpStatus.OK.value() && eTag != null
+                && response.getBody() instanceof byte[]) {
+            responses.put(key, new CachedResponse(eTag, response.getHeaders(), (byte[]) response.getBody()));
+        } else {
+            responses.invalidate(key);
+        }
+        return response;
+    }
+
+    @lombok.Value
+    static class Key {
+        String resource;
+        String uri;
+        Long userId;
+    }
+
+    @lombok.Value
+    static class CachedResponse {
+        String eTag;
+        HttpHeaders headers;
+        byte[] body;
+
+        ResponseEntity<Object> toResponseEntity() {
+            return ResponseEntity.ok().headers(headers).body(body);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Forwards one validated gateway request to the ShareIt server. The blocking transport answers on the calling
+ * thread with an already completed future; the async one returns straight away and completes on the client's
+ * own threads once the server responds.
+ */
+public interface ServerTransport {
+    default <T> CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, String path,
+                                                                   @Nullable Long userId,
+                                                                   @Nullable Map<String, Object> parameters,
+                                                                   @Nullable T body) {
+        return exchange(method, path, userId, parameters, body, HttpHeaders.EMPTY);
+    }
+
+    <T> CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, String path, @Nullable Long userId,
+                                                           @Nullable Map<String, Object> parameters,
+                                                           @Nullable T body, HttpHeaders headers);
+}
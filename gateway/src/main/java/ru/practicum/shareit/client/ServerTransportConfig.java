@@ -0,0 +1,53 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * shareit-server.mode selects how the controllers forward requests. In blocking mode a servlet thread waits
+ * for every server call. In async mode the controllers hand back a future, the servlet thread is released, and
+ * the JDK HttpClient completes the response on a few threads of its own.
+ */
+@Configuration
+public class ServerTransportConfig {
+    @Bean
+    @ConditionalOnProperty(name = "shareit-server.mode", havingValue = "blocking", matchIfMissing = true)
+    public ServerTransportFactory blockingServerTransports() {
+        return BlockingServerTransport::new;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "shareit-server.mode", havingValue = "async")
+    public ExecutorService asyncServerTransportExecutor(@Value("${shareit-server.async.threads:4}") int threads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("shareit-server-async-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "shareit-server.mode", havingValue = "async")
+    public ServerTransportFactory asyncServerTransports(
+            ExecutorService asyncServerTransportExecutor,
+            ObjectMapper objectMapper,
+            @Value("${shareit-server.http.max-connections:200}") int maxConnections,
+            @Value("${shareit-server.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.http.socket-timeout:60s}") Duration socketTimeout) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .executor(asyncServerTransportExecutor)
+                .build();
+        InFlightLimit limit = new InFlightLimit(maxConnections);
+        return rest -> new AsyncServerTransport(httpClient, rest.getUriTemplateHandler(), objectMapper,
+                socketTimeout, limit);
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.web.client.RestTemplate;
+
+@FunctionalInterface
+public interface ServerTransportFactory {
+    ServerTransport forTemplate(RestTemplate rest);
+}
@@ -1,65 +1,209 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.apache.http.client.HttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
+import ru.practicum.shareit.item.dto.ItemImportDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.json.JsonRecordReader;
+import ru.practicum.shareit.validation.Create;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class ItemClient extends BaseClient {
     static String API_PREFIX = "/items";
+    static String SEARCH_PATH = "/search";
+    ObjectMapper objectMapper;
+    Validator validator;
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpClient httpClient, ServerTransportFactory transports, ResponseCache responseCache,
+                      ObjectMapper objectMapper, Validator validator) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> streamingRequestFactory(httpClient))
+                        .build(),
+                transports,
+                responseCache
         );
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
-    public ResponseEntity<Object> getAll(long userId, Integer from, Integer size) {
+    private static HttpComponentsClientHttpRequestFactory streamingRequestFactory(HttpClient httpClient) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setBufferRequestBody(false);
+        return requestFactory;
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getAll(
+            long userId,
+            Integer from,
+            Integer size,
+            @Nullable String cursor) {
+        if (cursor == null) {
+            Map<String, Object> parameters = Map.of(
+                    "from", from,
+                    "size", size
+            );
+            return get("?from={from}&size={size}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
+                "size", size,
+                "cursor", cursor
         );
-        return get("?from={from}&size={size}", userId, parameters);
+        return get("?size={size}&cursor={cursor}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getById(Long itemId, long userId) {
-        return get("/" + itemId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getById(Long itemId, long userId) {
+        return cachedGet("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> create(long userId, ItemRequestDto requestDto) {
-        return post("", userId, requestDto);
+    public CompletableFuture<ResponseEntity<Object>> getAvailability(
+            Long itemId,
+            long userId,
+            LocalDateTime start,
+            LocalDateTime end) {
+        Map<String, Object> parameters = Map.of(
+                "start", start,
+                "end", end
+        );
+        return get("/" + itemId + "/availability?start={start}&end={end}", userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> create(long userId, ItemRequestDto requestDto) {
+        return invalidating(post("", userId, requestDto), SEARCH_PATH);
     }
 
-    public ResponseEntity<Object> update(ItemRequestDto requestDto, Long itemId, long userId) {
-        return patch("/" + itemId, userId, requestDto);
+    public CompletableFuture<ResponseEntity<Object>> update(ItemRequestDto requestDto, Long itemId, long userId) {
+        return invalidating(patch("/" + itemId, userId, requestDto), "/" + itemId, SEARCH_PATH);
     }
 
-    public ResponseEntity<Object> search(String text, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> search(String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", null, parameters);
+        return cachedGet(SEARCH_PATH + "?text={text}&from={from}&size={size}", null, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> commented(Long itemId, long userId, CommentRequestDto requestDto) {
+        return invalidating(post("/" + itemId + "/comment", userId, requestDto), "/" + itemId);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getComments(
+            Long itemId,
+            long userId,
+            Integer size,
+            @Nullable String cursor) {
+        if (cursor == null) {
+            Map<String, Object> parameters = Map.of("size", size);
+            return get("/" + itemId + "/comments?size={size}", userId, parameters);
+        }
+        Map<String, Object> parameters = Map.of(
+                "size", size,
+                "cursor", cursor
+        );
+        return get("/" + itemId + "/comments?size={size}&cursor={cursor}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> importItems(long userId, InputStream body) {
+        List<Integer> forwarded = new ArrayList<>();
+        List<ItemImportDto.Failure> failures = new ArrayList<>();
+        ItemImportDto imported;
+        try {
+            imported = rest.execute("/import", HttpMethod.POST, request -> {
+                request.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+                request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                forward(body, request.getBody(), forwarded, failures);
+            }, response -> objectMapper.readValue(response.getBody(), ItemImportDto.class));
+        } catch (HttpStatusCodeException e) {
+            return relay(e);
+        }
+        invalidate(SEARCH_PATH);
+        imported.getFailures().forEach(failure -> failures.add(
+                new ItemImportDto.Failure(clientIndex(forwarded, failure.getIndex()), failure.getError())));
+        failures.sort(Comparator.comparingInt(ItemImportDto.Failure::getIndex));
+        return ResponseEntity.ok(new ItemImportDto(imported.getImported(), failures));
+    }
+
+    /*
+     * The server numbers only the records it was sent. A failure past the last of them, such as the stream ending
+     * mid-record, belongs right after the last forwarded record.
+     */
+    private static int clientIndex(List<Integer> forwarded, int serverIndex) {
+        if (serverIndex >= 0 && serverIndex < forwarded.size()) {
+            return forwarded.get(serverIndex);
+        }
+        return forwarded.isEmpty() ? 0 : forwarded.get(forwarded.size() - 1) + 1;
     }
 
-    public ResponseEntity<Object> commented(Long itemId, long userId, CommentRequestDto requestDto) {
-        return post("/" + itemId + "/comment", userId, requestDto);
+    private void forward(InputStream body, OutputStream server, List<Integer> forwarded,
+                         List<ItemImportDto.Failure> failures) throws IOException {
+        int index = 0;
+        try (JsonRecordReader reader = JsonRecordReader.open(objectMapper, body);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(server)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            for (JsonNode node = reader.next(); node != null; index++, node = reader.next()) {
+                ItemRequestDto requestDto;
+                try {
+                    requestDto = objectMapper.treeToValue(node, ItemRequestDto.class);
+                } catch (JsonProcessingException e) {
+                    failures.add(new ItemImportDto.Failure(index, "Malformed item: " + e.getOriginalMessage()));
+                    continue;
+                }
+                Set<ConstraintViolation<ItemRequestDto>> violations = validator.validate(requestDto, Create.class);
+                if (!violations.isEmpty()) {
+                    failures.add(new ItemImportDto.Failure(index, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", "))));
+                    continue;
+                }
+                generator.writeObject(requestDto);
+                forwarded.add(index);
+            }
+        } catch (JsonProcessingException e) {
+            failures.add(new ItemImportDto.Failure(index, "Malformed JSON: " + e.getOriginalMessage()));
+        }
     }
 }
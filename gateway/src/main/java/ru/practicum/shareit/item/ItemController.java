@@ -3,7 +3,9 @@ package ru.practicum.shareit.item;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -13,9 +15,13 @@ import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.validation.Create;
 import ru.practicum.shareit.validation.Update;
 
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping("/items")
@@ -26,45 +32,78 @@ public class ItemController {
     ItemClient itemClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return itemClient.getAll(userId, from, size);
+    public CompletableFuture<ResponseEntity<Object>> getAll(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        return itemClient.getAll(userId, from, size, cursor);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getById(@PathVariable Long itemId,
-                                          @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getById(@PathVariable Long itemId,
+                                                             @RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemClient.getById(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public CompletableFuture<ResponseEntity<Object>> getAvailability(
+            @PathVariable Long itemId,
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(name = "end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Start must be before end.");
+        }
+        return itemClient.getAvailability(itemId, userId, start, end);
+    }
+
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @Validated({Create.class}) @RequestBody ItemRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @Validated({Create.class}) @RequestBody ItemRequestDto requestDto) {
         return itemClient.create(userId, requestDto);
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Object> importItems(@RequestHeader("X-Sharer-User-Id") Long userId, InputStream body) {
+        return itemClient.importItems(userId, body);
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @Validated({Update.class}) @RequestBody ItemRequestDto requestDto,
-                                         @PathVariable Long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> update(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @Validated({Update.class}) @RequestBody ItemRequestDto requestDto,
+            @PathVariable Long itemId) {
         return itemClient.update(requestDto, itemId, userId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@RequestParam String text,
-                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> search(
+            @RequestParam String text,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
         if (text.isBlank()) {
-            return new ResponseEntity<>(List.of(), HttpStatus.OK);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(List.of(), HttpStatus.OK));
         } else {
             return itemClient.search(text, from, size);
         }
     }
 
+    @GetMapping("/{itemId}/comments")
+    public CompletableFuture<ResponseEntity<Object>> getComments(
+            @PathVariable Long itemId,
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @Positive @Max(100) @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        return itemClient.getComments(itemId, userId, size, cursor);
+    }
+
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> commented(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
-                                            @Validated({Create.class}) @RequestBody CommentRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> commented(
+            @PathVariable Long itemId,
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @Validated({Create.class}) @RequestBody CommentRequestDto requestDto) {
         return itemClient.commented(itemId, userId, requestDto);
     }
 }
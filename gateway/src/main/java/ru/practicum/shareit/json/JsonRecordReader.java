@@ -0,0 +1,45 @@
+package ru.practicum.shareit.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class JsonRecordReader implements Closeable {
+    private final JsonParser parser;
+    private final boolean array;
+    private boolean pending;
+
+    private JsonRecordReader(JsonParser parser) throws IOException {
+        this.parser = parser;
+        JsonToken first = parser.nextToken();
+        this.array = first == JsonToken.START_ARRAY;
+        this.pending = !array;
+    }
+
+    public static JsonRecordReader open(ObjectMapper objectMapper, InputStream body) throws IOException {
+        return new JsonRecordReader(objectMapper.getFactory().createParser(body));
+    }
+
+    public JsonNode next() throws IOException {
+        JsonToken token = pending ? parser.currentToken() : parser.nextToken();
+        pending = false;
+        if (token == null || (array && token == JsonToken.END_ARRAY)) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object but found " + token);
+        }
+        return parser.readValueAsTree();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
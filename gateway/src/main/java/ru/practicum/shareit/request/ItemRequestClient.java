@@ -2,46 +2,61 @@ package ru.practicum.shareit.request;
 
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.apache.http.client.HttpClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.request.dto.ItemRequestRequestDto;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class ItemRequestClient extends BaseClient {
     static String API_PREFIX = "/requests";
 
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                             HttpClient httpClient, ServerTransportFactory transports,
+                             ResponseCache responseCache) {
         super(
                 builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                        .build(),
+                transports,
+                responseCache
         );
     }
 
-    public ResponseEntity<Object> getAll(Long userId, int from, int size) {
+    public CompletableFuture<ResponseEntity<Object>> getAll(Long userId, int from, int size, @Nullable String cursor) {
+        if (cursor == null) {
+            Map<String, Object> parameters = Map.of(
+                    "from", from,
+                    "size", size);
+            return get("/all?from={from}&size={size}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size);
-        return get("/all?from={from}&size={size}", userId, parameters);
+                "size", size,
+                "cursor", cursor);
+        return get("/all?size={size}&cursor={cursor}", userId, parameters);
     }
 
-    public ResponseEntity<Object> create(Long userId, ItemRequestRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(Long userId, ItemRequestRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getAllByUser(Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllByUser(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getById(Long requestId, Long userId) {
-        return get("/" + requestId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getById(Long requestId, Long userId) {
+        return cachedGet("/" + requestId, userId);
     }
 }
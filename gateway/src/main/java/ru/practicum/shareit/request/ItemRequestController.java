@@ -13,6 +13,8 @@ import ru.practicum.shareit.validation.Create;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequiredArgsConstructor
 @RequestMapping("/requests")
@@ -22,26 +24,29 @@ public class ItemRequestController {
     ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @Validated({Create.class}) @RequestBody ItemRequestRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @Validated({Create.class}) @RequestBody ItemRequestRequestDto requestDto) {
         return itemRequestClient.create(userId, requestDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemRequestClient.getAllByUser(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return itemRequestClient.getAll(userId, from, size);
+    public CompletableFuture<ResponseEntity<Object>> getAll(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        return itemRequestClient.getAll(userId, from, size, cursor);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getById(@PathVariable Long requestId,
-                                          @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getById(@PathVariable Long requestId,
+                                                             @RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemRequestClient.getById(requestId, userId);
     }
 }
@@ -2,6 +2,7 @@ package ru.practicum.shareit.user;
 
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.apache.http.client.HttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -10,39 +11,46 @@ import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransportFactory;
 import ru.practicum.shareit.user.dto.UserRequestDto;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class UserClient extends BaseClient {
     static String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpClient httpClient, ServerTransportFactory transports, ResponseCache responseCache) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build(),
+                transports,
+                responseCache
         );
     }
 
-    public ResponseEntity<Object> getAll() {
+    public CompletableFuture<ResponseEntity<Object>> getAll() {
         return get("");
     }
 
-    public ResponseEntity<Object> getById(Long userId) {
-        return get("/" + userId);
+    public CompletableFuture<ResponseEntity<Object>> getById(Long userId) {
+        return cachedGet("/" + userId, null);
     }
 
-    public ResponseEntity<Object> create(UserRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(UserRequestDto requestDto) {
         return post("", requestDto);
     }
 
-    public ResponseEntity<Object> update(Long userId, UserRequestDto requestDto) {
-        return patch("/" + userId, requestDto);
+    public CompletableFuture<ResponseEntity<Object>> update(Long userId, UserRequestDto requestDto) {
+        return invalidating(patch("/" + userId, requestDto), "/" + userId);
     }
 
-    public ResponseEntity<Object> delete(Long userId) {
-        return delete("/" + userId);
+    public CompletableFuture<ResponseEntity<Object>> delete(Long userId) {
+        return invalidating(delete("/" + userId), "/" + userId);
     }
 }
@@ -11,6 +11,8 @@ import ru.practicum.shareit.user.dto.UserRequestDto;
 import ru.practicum.shareit.validation.Create;
 import ru.practicum.shareit.validation.Update;
 
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequestMapping("/users")
 @RequiredArgsConstructor
@@ -19,28 +21,30 @@ public class UserController {
     UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAll() {
+    public CompletableFuture<ResponseEntity<Object>> getAll() {
         return userClient.getAll();
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getById(@PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getById(@PathVariable Long userId) {
         return userClient.getById(userId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(@Validated({Create.class}) @RequestBody UserRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(
+            @Validated({Create.class}) @RequestBody UserRequestDto requestDto) {
         return userClient.create(requestDto);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> update(@Validated({Update.class}) @RequestBody UserRequestDto requestDto,
-                                         @PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> update(
+            @Validated({Update.class}) @RequestBody UserRequestDto requestDto,
+            @PathVariable Long userId) {
         return userClient.update(userId, requestDto);
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> delete(@PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> delete(@PathVariable Long userId) {
         return userClient.delete(userId);
     }
 }
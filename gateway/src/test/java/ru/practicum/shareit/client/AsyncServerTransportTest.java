@@ -0,0 +1,109 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncServerTransportTest {
+    static byte[] NOT_FOUND = "{\"error\":\"Item 1 not found.\"}".getBytes(StandardCharsets.UTF_8);
+    HttpServer server;
+    HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 10);
+        server.createContext("/items", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("X-Request-Id", "42");
+            exchange.sendResponseHeaders(404, NOT_FOUND.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(NOT_FOUND);
+            }
+        });
+        server.createContext("/users", exchange -> {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @Test
+    void exchange_whenServerAnswersError_thenRelayStatusHeadersAndBody() throws Exception {
+        ResponseEntity<Object> response = transport(server.getAddress().getPort())
+                .exchange(HttpMethod.GET, "/items/1", 1L, null, null).get();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("application/json", response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+        assertEquals("42", response.getHeaders().getFirst("X-Request-Id"));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+        assertArrayEquals(NOT_FOUND, (byte[]) response.getBody());
+    }
+
+    @Test
+    void exchange_whenServerAnswersWithoutBody_thenRelayNoBody() throws Exception {
+        ResponseEntity<Object> response = transport(server.getAddress().getPort())
+                .exchange(HttpMethod.DELETE, "/users/1", null, null, null).get();
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void exchange_whenServerUnreachable_thenCompleteWithResourceAccessException() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        CompletableFuture<ResponseEntity<Object>> response = transport(closedPort)
+                .exchange(HttpMethod.GET, "/items/1", 1L, null, null);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, response::get);
+        ResourceAccessException cause = assertInstanceOf(ResourceAccessException.class, thrown.getCause());
+        assertTrue(cause.getMessage().startsWith("I/O error on GET request for \"http://localhost:"));
+    }
+
+    @Test
+    void exchange_whenBodyNotWritable_thenThrowBeforeSending() {
+        ServerTransport transport = transport(server.getAddress().getPort());
+
+        assertThrows(HttpMessageNotWritableException.class,
+                () -> transport.exchange(HttpMethod.POST, "/items", 1L, null, new Object()));
+    }
+
+    private ServerTransport transport(int port) {
+        return new AsyncServerTransport(httpClient, new DefaultUriBuilderFactory("http://localhost:" + port),
+                new ObjectMapper(), Duration.ofSeconds(5), new InFlightLimit(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+}
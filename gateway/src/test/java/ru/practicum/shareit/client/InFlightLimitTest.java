@@ -0,0 +1,190 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InFlightLimitTest {
+    static int MAX_IN_FLIGHT = 3;
+    static int CALLS = 10;
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger peak = new AtomicInteger();
+
+    @Test
+    void submit_whenCallsCompleteOutOfOrder_thenStartEveryQueuedCallWithinLimit() {
+        InFlightLimit limit = new InFlightLimit(MAX_IN_FLIGHT);
+        List<CompletableFuture<Integer>> calls = new ArrayList<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        for (int i = 0; i < CALLS; i++) {
+            results.add(limit.submit(() -> start(calls)));
+        }
+        assertEquals(MAX_IN_FLIGHT, calls.size());
+        for (int i = 0; i < CALLS; i++) {
+            int newest = newestPending(calls);
+            finish(calls.get(newest), newest);
+        }
+
+        assertEquals(CALLS, calls.size());
+        assertEquals(MAX_IN_FLIGHT, peak.get());
+        assertEquals(0, running.get());
+        for (int i = 0; i < CALLS; i++) {
+            assertEquals(i, results.get(i).join());
+        }
+    }
+
+    @Test
+    void submit_whenCallFails_thenReleaseItsPermit() {
+        InFlightLimit limit = new InFlightLimit(1);
+        List<CompletableFuture<Integer>> calls = new ArrayList<>();
+        IllegalStateException error = new IllegalStateException("server down");
+
+        CompletableFuture<Integer> failed = limit.submit(() -> start(calls));
+        CompletableFuture<Integer> queued = limit.submit(() -> start(calls));
+        assertEquals(1, calls.size());
+        running.decrementAndGet();
+        calls.get(0).completeExceptionally(error);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, failed::get);
+        assertSame(error, thrown.getCause());
+        assertEquals(2, calls.size());
+        finish(calls.get(1), 1);
+        assertEquals(1, queued.join());
+    }
+
+    @Test
+    void submit_whenCallThrowsBeforeStarting_thenReleaseItsPermit() {
+        InFlightLimit limit = new InFlightLimit(1);
+        List<CompletableFuture<Integer>> calls = new ArrayList<>();
+
+        CompletableFuture<Integer> thrown = limit.submit(() -> {
+            throw new IllegalArgumentException("bad request");
+        });
+        CompletableFuture<Integer> next = limit.submit(() -> start(calls));
+
+        assertTrue(thrown.isCompletedExceptionally());
+        assertEquals(1, calls.size());
+        finish(calls.get(0), 0);
+        assertEquals(0, next.join());
+    }
+
+    @Test
+    void submit_whenQueueDrainedByAnotherRelease_thenReturnPermit() {
+        InFlightLimit limit = new InFlightLimit(1, new RacedQueue());
+        List<CompletableFuture<Integer>> calls = new ArrayList<>();
+
+        CompletableFuture<Integer> first = limit.submit(() -> start(calls));
+        assertTrue(calls.isEmpty());
+        CompletableFuture<Integer> second = limit.submit(() -> start(calls));
+
+        assertEquals(1, calls.size());
+        finish(calls.get(0), 0);
+        assertEquals(2, calls.size());
+        finish(calls.get(1), 1);
+        assertEquals(0, first.join());
+        assertEquals(1, second.join());
+        assertEquals(1, peak.get());
+    }
+
+    @Test
+    void submit_whenDeepBacklogCompletesImmediately_thenStartQueuedCallsWithoutRecursion() {
+        InFlightLimit limit = new InFlightLimit(1);
+        List<CompletableFuture<Integer>> calls = new ArrayList<>();
+        int backlog = 100_000;
+
+        CompletableFuture<Integer> first = limit.submit(() -> start(calls));
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < backlog; i++) {
+            int value = i;
+            results.add(limit.submit(() -> CompletableFuture.completedFuture(value)));
+        }
+        finish(calls.get(0), -1);
+
+        assertEquals(-1, first.join());
+        for (int i = 0; i < backlog; i++) {
+            assertEquals(i, results.get(i).orTimeout(10, TimeUnit.SECONDS).join());
+        }
+    }
+
+    @Test
+    void submit_whenCalledFromManyThreads_thenNeverExceedLimit() throws InterruptedException {
+        InFlightLimit limit = new InFlightLimit(MAX_IN_FLIGHT);
+        ExecutorService submitters = Executors.newFixedThreadPool(8);
+        ExecutorService completers = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        int calls = 2_000;
+
+        for (int i = 0; i < calls; i++) {
+            CompletableFuture<Integer> result = new CompletableFuture<>();
+            results.add(result);
+            int value = i;
+            submitters.execute(() -> limit.submit(() -> {
+                enter();
+                return CompletableFuture.supplyAsync(() -> {
+                    running.decrementAndGet();
+                    return value;
+                }, completers);
+            }).whenComplete((completed, error) -> result.complete(completed)));
+        }
+
+        for (int i = 0; i < calls; i++) {
+            assertEquals(i, results.get(i).orTimeout(10, TimeUnit.SECONDS).join());
+        }
+        submitters.shutdown();
+        completers.shutdown();
+        assertTrue(peak.get() <= MAX_IN_FLIGHT);
+    }
+
+    private CompletableFuture<Integer> start(List<CompletableFuture<Integer>> calls) {
+        enter();
+        CompletableFuture<Integer> call = new CompletableFuture<>();
+        calls.add(call);
+        return call;
+    }
+
+    private static int newestPending(List<CompletableFuture<Integer>> calls) {
+        int newest = calls.size() - 1;
+        while (calls.get(newest).isDone()) {
+            newest--;
+        }
+        return newest;
+    }
+
+    private void enter() {
+        peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+    }
+
+    private void finish(CompletableFuture<Integer> call, int value) {
+        assertFalse(call.isDone());
+        running.decrementAndGet();
+        call.complete(value);
+    }
+
+    /* Seen as not empty by the first drain, whose poll then comes back empty as if a concurrent drain won. */
+    private static class RacedQueue extends ConcurrentLinkedQueue<Runnable> {
+        boolean raced;
+
+        @Override
+        public Runnable poll() {
+            if (!raced) {
+                raced = true;
+                return null;
+            }
+            return super.poll();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseCacheTest {
+    static URI ITEM = URI.create("http://localhost/items/1");
+    static URI OTHER_ITEM = URI.create("http://localhost/items/2");
+    static byte[] BODY = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+    ResponseCache responseCache;
+    List<HttpHeaders> sent;
+
+    @BeforeEach
+    void setUp() {
+        responseCache = new ResponseCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+        sent = new ArrayList<>();
+    }
+
+    @Test
+    void get_whenResponseCached_thenRevalidateWithItsETag() {
+        get(ITEM, 1L, ok("\"1\""));
+
+        get(ITEM, 1L, ok("\"1\""));
+
+        assertNull(sent.get(0).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"1\"", sent.get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void get_whenOtherQuery_thenNotRevalidateCachedResponse() {
+        get(ITEM, 1L, ok("\"1\""));
+
+        get(URI.create(ITEM + "?from=0"), 1L, ok("\"1\""));
+
+        assertNull(sent.get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void get_whenOtherPath_thenNotRevalidateCachedResponse() {
+        get(ITEM, 1L, ok("\"1\""));
+
+        get(OTHER_ITEM, 1L, ok("\"1\""));
+
+        assertNull(sent.get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void get_whenOtherUser_thenNotRevalidateCachedResponse() {
+        get(ITEM, 1L, ok("\"1\""));
+
+        get(ITEM, 2L, ok("\"1\""));
+
+        assertNull(sent.get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void get_whenNotModified_thenReturnCachedBody() {
+        get(ITEM, 1L, ok("\"1\""));
+
+        ResponseEntity<Object> response = get(ITEM, 1L, ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"1\"", response.getHeaders().getETag());
+        assertArrayEquals(BODY, (byte[]) response.getBody());
+    }
+
+    @Test
+    void get_whenNotModifiedWithoutCachedResponse_thenReturnServerResponse() {
+        ResponseEntity<Object> response = get(ITEM, 1L, ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+    }
+
+    @Test
+    void get_whenErrorAfterCachedResponse_thenRemoveIt() {
+        get(ITEM, 1L, ok("\"1\""));
+
+        ResponseEntity<Object> response = get(ITEM, 1L, ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        get(ITEM, 1L, ok("\"2\""));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNull(sent.get(2).getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void get_whenResponseWithoutETagAfterCachedResponse_thenRemoveIt() {
+        get(ITEM, 1L, ok("\"1\""));
+
+        get(ITEM, 1L, ResponseEntity.ok().body(BODY));
+        get(ITEM, 1L, ok("\"2\""));
+
+        assertNull(sent.get(2).getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void get_whenNewETag_thenReplaceCachedResponse() {
+        get(ITEM, 1L, ok("\"1\""));
+
+        get(ITEM, 1L, ok("\"2\""));
+        get(ITEM, 1L, ok("\"2\""));
+
+        assertEquals("\"2\"", sent.get(2).getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void invalidate_whenInvoked_thenRemoveOnlyMatchingResource() {
+        URI itemPage = URI.create(ITEM + "?from=0");
+        get(ITEM, 1L, ok("\"1\""));
+        get(itemPage, 2L, ok("\"1\""));
+        get(OTHER_ITEM, 1L, ok("\"1\""));
+
+        responseCache.invalidate(ITEM);
+        get(ITEM, 1L, ok("\"1\""));
+        get(itemPage, 2L, ok("\"1\""));
+        get(OTHER_ITEM, 1L, ok("\"1\""));
+
+        assertNull(sent.get(3).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertNull(sent.get(4).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"1\"", sent.get(5).getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    private ResponseEntity<Object> get(URI uri, Long userId, ResponseEntity<Object> reply) {
+        return responseCache.get(uri, userId, answering(reply)).join();
+    }
+
+    private Function<HttpHeaders, CompletableFuture<ResponseEntity<Object>>> answering(ResponseEntity<Object> reply) {
+        return headers -> {
+            sent.add(headers);
+            return CompletableFuture.completedFuture(reply);
+        };
+    }
+
+    private static ResponseEntity<Object> ok(String eTag) {
+        return ResponseEntity.ok().eTag(eTag).body(BODY);
+    }
+}
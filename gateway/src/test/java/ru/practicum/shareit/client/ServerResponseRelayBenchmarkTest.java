@@ -0,0 +1,110 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Cost in the gateway of relaying a 1 MB list of bookings: parsing it into an Object and writing it back, as
+ * BaseClient used to, against passing the server's bytes through. Allocation is measured on the calling thread,
+ * which does both the exchange and the write.
+ */
+@Tag("benchmark")
+class ServerResponseRelayBenchmarkTest {
+    static int BOOKINGS = 6_500;
+    static int WARMUP = 200;
+    static int ITERATIONS = 500;
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    HttpServer server;
+    RestTemplate rest;
+    byte[] bookings;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < BOOKINGS; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"id\":").append(i)
+                    .append(",\"start\":\"2030-01-01T12:00:00\",\"end\":\"2030-01-02T12:00:00\",\"status\":\"WAITING\"")
+                    .append(",\"booker\":{\"id\":1,\"name\":\"booker\"}")
+                    .append(",\"item\":{\"id\":").append(i).append(",\"name\":\"item ").append(i).append("\"}}");
+        }
+        bookings = json.append("]").toString().getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 50);
+        server.createContext("/", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bookings.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(bookings);
+            }
+        });
+        server.start();
+        rest = new RestTemplateBuilder()
+                .uriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:" + server.getAddress().getPort()))
+                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                .build();
+    }
+
+    @Test
+    void getBookings_parsedVersusRelayed() throws Exception {
+        assertTrue(bookings.length > 1_000_000);
+        ServerTransport transport = new BlockingServerTransport(rest);
+
+        report("parsed", () -> {
+            ResponseEntity<Object> response = rest.exchange("/bookings", HttpMethod.GET, HttpEntity.EMPTY,
+                    Object.class);
+            objectMapper.writeValue(OutputStream.nullOutputStream(), response.getBody());
+            return null;
+        });
+        report("relayed", () -> {
+            ResponseEntity<Object> response = transport.exchange(HttpMethod.GET, "/bookings", 1L, null, null).get();
+            OutputStream.nullOutputStream().write((byte[]) response.getBody());
+            return null;
+        });
+    }
+
+    private void report(String name, Callable<?> relay) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            relay.call();
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            relay.call();
+        }
+        long elapsed = System.nanoTime() - started;
+        allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+        System.out.printf("%-8s %8.2f ms/response %8.2f MB allocated/response%n", name,
+                elapsed / 1_000_000.0 / ITERATIONS, allocated / 1024.0 / 1024.0 / ITERATIONS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItGateway;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * Drives the gateway against a stub server that answers every call after a fixed delay, once per
+ * shareit-server.mode. Tomcat is capped at a few threads, so the blocking mode is bound by them while the async
+ * mode is bound by the in-flight limit.
+ */
+@Tag("benchmark")
+class ServerTransportBenchmarkTest {
+    static int SERVER_DELAY_MS = 50;
+    static int TOMCAT_THREADS = 20;
+    static int CONCURRENCY = 500;
+    static int REQUESTS = 5_000;
+    static byte[] USER = "{\"id\":1,\"name\":\"user\",\"email\":\"user@bench.ru\"}".getBytes(StandardCharsets.UTF_8);
+    HttpServer server;
+    ScheduledExecutorService delays;
+    HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        delays = Executors.newScheduledThreadPool(4);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1_000);
+        server.createContext("/", exchange -> delays.schedule(() -> respond(exchange), SERVER_DELAY_MS,
+                TimeUnit.MILLISECONDS));
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(4))
+                .build();
+    }
+
+    @Test
+    void getUser_blockingVersusAsync() throws Exception {
+        report("warm-up", "blocking");
+        report("blocking", "blocking");
+        report("async", "async");
+    }
+
+    private void report(String name, String mode) throws Exception {
+        ConfigurableApplicationContext gateway = new SpringApplicationBuilder(ShareItGateway.class)
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--shareit-server.url=http://localhost:" + server.getAddress().getPort(),
+                        "--shareit-server.mode=" + mode,
+                        "--logging.level.root=WARN");
+        try {
+            URI uri = URI.create("http://localhost:" + gateway.getEnvironment().getProperty("local.server.port") +
+                    "/users/1");
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            Semaphore inFlight = new Semaphore(CONCURRENCY);
+            List<CompletableFuture<Integer>> statuses = new ArrayList<>();
+            long started = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                inFlight.acquire();
+                statuses.add(client.sendAsync(HttpRequest.newBuilder(uri).build(),
+                                HttpResponse.BodyHandlers.discarding())
+                        .thenApply(HttpResponse::statusCode)
+                        .whenComplete((status, error) -> inFlight.release()));
+            }
+            for (CompletableFuture<Integer> status : statuses) {
+                assertEquals(200, status.get());
+            }
+            long elapsed = System.nanoTime() - started;
+            System.out.printf("%-10s %8.0f requests/s %6d peak threads%n", name,
+                    REQUESTS / (elapsed / 1_000_000_000.0), threads.getPeakThreadCount());
+        } finally {
+            gateway.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange) {
+        try (OutputStream body = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, USER.length);
+            body.write(USER);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        delays.shutdownNow();
+    }
+}
@@ -0,0 +1,28 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+public class V5__add_id_sequences extends BaseJavaMigration {
+    static final String[] TABLES = {"users", "requests", "items", "comments", "bookings"};
+    static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                long maxId;
+                try (ResultSet resultSet = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+                    resultSet.next();
+                    maxId = resultSet.getLong(1);
+                }
+                statement.execute(String.format("alter table %s alter column id drop identity", table));
+                statement.execute(String.format("create sequence %s_seq start with %d increment by %d",
+                        table, maxId + ALLOCATION_SIZE, ALLOCATION_SIZE));
+            }
+        }
+    }
+}
@@ -3,13 +3,23 @@ package ru.practicum.shareit.booking;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.service.BookingExportService;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
+import java.util.Map;
 
 
 @RestController
@@ -18,6 +28,7 @@ import java.util.List;
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class BookingController {
     BookingService bookingService;
+    BookingExportService bookingExportService;
 
     @PostMapping
     public BookingDto create(@RequestBody BookingShortDto bookingShortDto,
@@ -33,24 +44,74 @@ public class BookingController {
         return BookingMapper.toBookingDto(bookingService.confirmRequest(userId, id, isApproved));
     }
 
+    @PatchMapping("/bulk")
+    public List<BookingOutcomeDto> confirmRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @RequestBody BookingDecisionDto decision) {
+        return bookingService.confirmRequests(userId, decision.getIds(), decision.getApproved());
+    }
+
     @GetMapping("/{bookingId}")
-    public BookingDto getById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable("bookingId") Long id) {
+    public BookingDto getById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable("bookingId") Long id,
+                              WebRequest request) {
+        if (request.checkNotModified(bookingService.getETag(userId, id))) {
+            return null;
+        }
         return BookingMapper.toBookingDto(bookingService.getById(userId, id));
     }
 
     @GetMapping
-    public List<BookingDto> getAllByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @RequestParam(value = "state", defaultValue = "ALL") State state,
-                                         @RequestParam(value = "from", defaultValue = "0") int from,
-                                         @RequestParam(value = "size", defaultValue = "10") int size) {
-        return BookingMapper.toListBookingDto(bookingService.getAllByUser(userId, state, from, size));
+    public ResponseEntity<List<BookingDto>> getAllByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @RequestParam(value = "state", defaultValue = "ALL") State state,
+                                                         @RequestParam(value = "from", defaultValue = "0") int from,
+                                                         @RequestParam(value = "size", defaultValue = "10") int size,
+                                                         @RequestParam(value = "cursor", required = false) String cursor) {
+        List<BookingView> bookings = cursor == null
+                ? bookingService.getAllByUser(userId, state, from, size)
+                : bookingService.getAllByUser(userId, state, PageCursor.decodeTimeKeyed(cursor), size);
+        return ResponseEntity.ok()
+                .headers(PageCursor.nextCursorHeaders(bookings, size, booking -> PageCursor.of(booking.getStart(), booking.getId())))
+                .body(BookingMapper.toListBookingDto(bookings));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                          @RequestParam(value = "state", defaultValue = "ALL") State state,
-                                          @RequestParam(value = "from", defaultValue = "0") int from,
-                                          @RequestParam(value = "size", defaultValue = "10") int size) {
-        return BookingMapper.toListBookingDto(bookingService.getAllByOwner(userId, state, from, size));
+    public ResponseEntity<List<BookingDto>> getAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                          @RequestParam(value = "state", defaultValue = "ALL") State state,
+                                                          @RequestParam(value = "from", defaultValue = "0") int from,
+                                                          @RequestParam(value = "size", defaultValue = "10") int size,
+                                                          @RequestParam(value = "cursor", required = false) String cursor) {
+        List<BookingView> bookings = cursor == null
+                ? bookingService.getAllByOwner(userId, state, from, size)
+                : bookingService.getAllByOwner(userId, state, PageCursor.decodeTimeKeyed(cursor), size);
+        return ResponseEntity.ok()
+                .headers(PageCursor.nextCursorHeaders(bookings, size, booking -> PageCursor.of(booking.getStart(), booking.getId())))
+                .body(BookingMapper.toListBookingDto(bookings));
+    }
+
+    @GetMapping("/counts")
+    public Map<State, Long> countByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.countByUser(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public Map<State, Long> countByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.countByOwner(userId);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                              @RequestParam(value = "state", defaultValue = "ALL")
+                                                              State state) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bookingExportService.exportByUser(userId, state));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                               @RequestParam(value = "state", defaultValue = "ALL")
+                                                               State state) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bookingExportService.exportByOwner(userId, state));
     }
 }
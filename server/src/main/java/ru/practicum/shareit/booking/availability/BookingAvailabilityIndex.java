@@ -0,0 +1,102 @@
+package ru.practicum.shareit.booking.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Interval trees of the blocking bookings of recently queried items. A tree is loaded on the first query for its
+ * item and then kept in step by the booking service after each commit. Caffeine makes those updates wait for a
+ * load of the same item in progress, so a booking committed during the load is never lost.
+ */
+@Component
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class BookingAvailabilityIndex {
+    static Set<BookingStatus> BLOCKING_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    BookingRepository bookingRepository;
+    PrimaryReads primaryReads;
+    Cache<Long, IntervalTree> trees;
+
+    public BookingAvailabilityIndex(BookingRepository bookingRepository, PrimaryReads primaryReads,
+                                    @Value("${shareit.availability.max-size:10000}") long maxSize) {
+        this.bookingRepository = bookingRepository;
+        this.primaryReads = primaryReads;
+        this.trees = Caffeine.newBuilder().maximumSize(maxSize).build();
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        IntervalTree tree = tree(itemId);
+        synchronized (tree) {
+            return !tree.overlaps(start, end);
+        }
+    }
+
+    public List<TimeWindow> freeWindows(Long itemId, LocalDateTime from, LocalDateTime to) {
+        IntervalTree tree = tree(itemId);
+        synchronized (tree) {
+            return tree.gaps(from, to);
+        }
+    }
+
+    public void add(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Long id = booking.getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        if (!isInterval(start, end)) {
+            return;
+        }
+        AfterCommit.run(() -> trees.asMap().computeIfPresent(itemId, (key, tree) -> {
+            synchronized (tree) {
+                tree.put(id, start, end);
+            }
+            return tree;
+        }));
+    }
+
+    public void remove(BookingView booking) {
+        Long itemId = booking.getItemId();
+        Long id = booking.getId();
+        AfterCommit.run(() -> trees.asMap().computeIfPresent(itemId, (key, tree) -> {
+            synchronized (tree) {
+                tree.remove(id);
+            }
+            return tree;
+        }));
+    }
+
+    /* A deleted user takes their bookings and the bookings of their items with them. */
+    public void invalidateAll() {
+        AfterCommit.run(trees::invalidateAll);
+    }
+
+    private IntervalTree tree(Long itemId) {
+        return primaryReads.get(trees, itemId, this::load);
+    }
+
+    private IntervalTree load(Long itemId) {
+        IntervalTree tree = new IntervalTree();
+        bookingRepository.findAllByItemIdAndStatusIn(itemId, BLOCKING_STATUSES).stream()
+                .filter(booking -> isInterval(booking.getStart(), booking.getEnd()))
+                .forEach(booking -> tree.put(booking.getId(), booking.getStart(), booking.getEnd()));
+        return tree;
+    }
+
+    private static boolean isInterval(LocalDateTime start, LocalDateTime end) {
+        return start != null && end != null && end.isAfter(start);
+    }
+}
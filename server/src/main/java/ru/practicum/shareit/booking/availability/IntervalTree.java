@@ -0,0 +1,197 @@
+package ru.practicum.shareit.booking.availability;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * AVL tree of half-open [start, end) intervals ordered by (start, id). Every node also keeps the latest end
+ * in its subtree, which lets overlap queries skip whole subtrees that finish before the queried range.
+ */
+class IntervalTree {
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private Node root;
+
+    int size() {
+        return nodes.size();
+    }
+
+    void put(Long id, LocalDateTime start, LocalDateTime end) {
+        remove(id);
+        Node node = new Node(id, start, end);
+        nodes.put(id, node);
+        root = insert(root, node);
+    }
+
+    void remove(Long id) {
+        Node node = nodes.remove(id);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return anyOverlapping(root, from, to);
+    }
+
+    List<TimeWindow> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<TimeWindow> result = new ArrayList<>();
+        collectOverlapping(root, from, to, result);
+        return result;
+    }
+
+    List<TimeWindow> gaps(LocalDateTime from, LocalDateTime to) {
+        List<TimeWindow> gaps = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (TimeWindow busy : overlapping(from, to)) {
+            if (busy.getStart().isAfter(cursor)) {
+                gaps.add(new TimeWindow(cursor, busy.getStart()));
+            }
+            if (busy.getEnd().isAfter(cursor)) {
+                cursor = busy.getEnd();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            gaps.add(new TimeWindow(cursor, to));
+        }
+        return gaps;
+    }
+
+    private static boolean anyOverlapping(Node node, LocalDateTime from, LocalDateTime to) {
+        while (node != null && node.maxEnd.isAfter(from)) {
+            if (node.start.isBefore(to) && node.end.isAfter(from)) {
+                return true;
+            }
+            if (node.left != null && node.left.maxEnd.isAfter(from)) {
+                node = node.left;
+            } else if (node.start.isBefore(to)) {
+                node = node.right;
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static void collectOverlapping(Node node, LocalDateTime from, LocalDateTime to, List<TimeWindow> result) {
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, result);
+        if (node.start.isBefore(to)) {
+            if (node.end.isAfter(from)) {
+                result.add(new TimeWindow(node.start, node.end));
+            }
+            collectOverlapping(node.right, from, to, result);
+        }
+    }
+
+    private static Node insert(Node subtree, Node node) {
+        if (subtree == null) {
+            return node.update();
+        }
+        if (compare(node, subtree) < 0) {
+            subtree.left = insert(subtree.left, node);
+        } else {
+            subtree.right = insert(subtree.right, node);
+        }
+        return balance(subtree.update());
+    }
+
+    private static Node delete(Node subtree, Node node) {
+        if (subtree == null) {
+            return null;
+        }
+        int comparison = compare(node, subtree);
+        if (comparison < 0) {
+            subtree.left = delete(subtree.left, node);
+        } else if (comparison > 0) {
+            subtree.right = delete(subtree.right, node);
+        } else {
+            if (subtree.left == null) {
+                return subtree.right;
+            }
+            if (subtree.right == null) {
+                return subtree.left;
+            }
+            Node successor = subtree.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = delete(subtree.right, successor);
+            successor.left = subtree.left;
+            subtree = successor;
+        }
+        return balance(subtree.update());
+    }
+
+    private static int compare(Node first, Node second) {
+        int comparison = first.start.compareTo(second.start);
+        return comparison != 0 ? comparison : first.id.compareTo(second.id);
+    }
+
+    private static Node balance(Node node) {
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node.update();
+        return pivot.update();
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node.update();
+        return pivot.update();
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node {
+        final Long id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        Node left;
+        Node right;
+        int height;
+        LocalDateTime maxEnd;
+
+        Node(Long id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+
+        Node update() {
+            height = Math.max(height(left), height(right)) + 1;
+            maxEnd = end;
+            if (left != null && left.maxEnd.isAfter(maxEnd)) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.isAfter(maxEnd)) {
+                maxEnd = right.maxEnd;
+            }
+            return this;
+        }
+    }
+}
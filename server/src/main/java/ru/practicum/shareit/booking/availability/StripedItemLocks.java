@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class StripedItemLocks {
+    Lock[] stripes;
+
+    public StripedItemLocks(@Value("${shareit.booking.lock-stripes:64}") int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLock(Long itemId, Supplier<T> action) {
+        Lock lock = stripeFor(itemId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Takes the stripes of all given items in index order, so two callers locking overlapping sets can't deadlock. */
+    public <T> T withLocks(Collection<Long> itemIds, Supplier<T> action) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        itemIds.forEach(itemId -> indexes.add(stripeIndex(itemId)));
+        Deque<Lock> held = new ArrayDeque<>(indexes.size());
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                held.push(stripes[index]);
+            }
+            return action.get();
+        } finally {
+            held.forEach(Lock::unlock);
+        }
+    }
+
+    Lock stripeFor(Long itemId) {
+        return stripes[stripeIndex(itemId)];
+    }
+
+    private int stripeIndex(Long itemId) {
+        int hash = Long.hashCode(itemId);
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
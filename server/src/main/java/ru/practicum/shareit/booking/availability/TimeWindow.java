@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class TimeWindow {
+    LocalDateTime start;
+    LocalDateTime end;
+}
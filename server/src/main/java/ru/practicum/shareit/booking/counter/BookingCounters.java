@@ -0,0 +1,172 @@
+package ru.practicum.shareit.booking.counter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/*
+ * Booking counts per state for bookers and owners. WAITING and REJECTED are loaded once per user and then kept
+ * up to date by the booking service after each commit. A load that overlapped a change may or may not have seen
+ * it, so its counts are used once and dropped instead of taking increments, see ChangeLedger. The time-based
+ * states are taken with one grouped query and kept until the nearest start or end of one of the user's bookings,
+ * or until the user gets a new booking. Only counts taken from the primary are cached.
+ */
+@Component
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class BookingCounters {
+    BookingRepository bookingRepository;
+    PrimaryReads primaryReads;
+    Duration maxAge;
+    Cache<Long, Tally> bookerStatuses;
+    Cache<Long, Tally> ownerStatuses;
+    Cache<Long, TimeCounts> bookerTimes;
+    Cache<Long, TimeCounts> ownerTimes;
+    ChangeLedger bookerChanges = new ChangeLedger();
+    ChangeLedger ownerChanges = new ChangeLedger();
+
+    public BookingCounters(BookingRepository bookingRepository, PrimaryReads primaryReads,
+                           @Value("${shareit.booking-counts.max-size:10000}") long maxSize,
+                           @Value("${shareit.booking-counts.expire-after-write:10m}") Duration maxAge) {
+        this.bookingRepository = bookingRepository;
+        this.primaryReads = primaryReads;
+        this.maxAge = maxAge;
+        this.bookerStatuses = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(maxAge).build();
+        this.ownerStatuses = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(maxAge).build();
+        this.bookerTimes = Caffeine.newBuilder().maximumSize(maxSize).expireAfter(new UntilChange()).build();
+        this.ownerTimes = Caffeine.newBuilder().maximumSize(maxSize).expireAfter(new UntilChange()).build();
+    }
+
+    public Map<State, Long> countByBooker(Long bookerId) {
+        return counts(statuses(bookerStatuses, bookerChanges, bookerId, bookingRepository::countStatusesByBooker),
+                primaryReads.get(bookerTimes, bookerId,
+                        id -> bookingRepository.countTimesByBooker(id, LocalDateTime.now())));
+    }
+
+    public Map<State, Long> countByOwner(Long ownerId) {
+        return counts(statuses(ownerStatuses, ownerChanges, ownerId, bookingRepository::countStatusesByOwner),
+                primaryReads.get(ownerTimes, ownerId,
+                        id -> bookingRepository.countTimesByOwner(id, LocalDateTime.now())));
+    }
+
+    public void created(Long bookerId, Long ownerId) {
+        changed(bookerId, ownerId, counts -> counts.plus(1, 0));
+        AfterCommit.run(() -> {
+            bookerTimes.invalidate(bookerId);
+            ownerTimes.invalidate(ownerId);
+        });
+    }
+
+    public void decided(Long bookerId, Long ownerId, BookingStatus status) {
+        long rejected = status.equals(BookingStatus.REJECTED) ? 1 : 0;
+        changed(bookerId, ownerId, counts -> counts.plus(-1, rejected));
+    }
+
+    /* A deleted user takes bookings of other bookers and owners with them, so nobody's counts can be trusted. */
+    public void invalidateAll() {
+        AfterCommit.run(() -> {
+            bookerStatuses.invalidateAll();
+            ownerStatuses.invalidateAll();
+            bookerTimes.invalidateAll();
+            ownerTimes.invalidateAll();
+        });
+    }
+
+    private void changed(Long bookerId, Long ownerId, UnaryOperator<StatusCounts> change) {
+        bookerChanges.changeStarted(bookerId);
+        ownerChanges.changeStarted(ownerId);
+        AfterCommit.run(() -> {
+            update(bookerStatuses, bookerId, change);
+            update(ownerStatuses, ownerId, change);
+        }, () -> {
+            bookerChanges.changeFinished(bookerId);
+            ownerChanges.changeFinished(ownerId);
+        });
+    }
+
+    private StatusCounts statuses(Cache<Long, Tally> cache, ChangeLedger changes, Long userId,
+                                  Function<Long, StatusCounts> query) {
+        Tally tally = primaryReads.get(cache, userId, id -> load(changes, id, query));
+        if (!tally.isExact()) {
+            cache.asMap().remove(userId, tally);
+        }
+        return tally.getCounts();
+    }
+
+    private Tally load(ChangeLedger changes, Long userId, Function<Long, StatusCounts> query) {
+        changes.loadStarted(userId);
+        StatusCounts counts;
+        try {
+            counts = query.apply(userId);
+        } catch (RuntimeException e) {
+            changes.loadFinished(userId);
+            throw e;
+        }
+        return new Tally(counts, changes.loadFinished(userId));
+    }
+
+    private static void update(Cache<Long, Tally> cache, Long userId, UnaryOperator<StatusCounts> change) {
+        cache.asMap().computeIfPresent(userId,
+                (id, tally) -> tally.isExact() ? new Tally(change.apply(tally.getCounts()), true) : null);
+    }
+
+    private static Map<State, Long> counts(StatusCounts statuses, TimeCounts times) {
+        Map<State, Long> counts = new EnumMap<>(State.class);
+        counts.put(State.ALL, times.getAll());
+        counts.put(State.CURRENT, times.getCurrent());
+        counts.put(State.PAST, times.getPast());
+        counts.put(State.FUTURE, times.getFuture());
+        counts.put(State.WAITING, statuses.getWaiting());
+        counts.put(State.REJECTED, statuses.getRejected());
+        return counts;
+    }
+
+    private class UntilChange implements Expiry<Long, TimeCounts> {
+        @Override
+        public long expireAfterCreate(Long key, TimeCounts value, long currentTime) {
+            if (value.getChangesAt() == null) {
+                return maxAge.toNanos();
+            }
+            Duration untilChange = Duration.between(LocalDateTime.now(), value.getChangesAt());
+            if (untilChange.isNegative()) {
+                return 0;
+            }
+            return Math.min(untilChange.toNanos(), maxAge.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, TimeCounts value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, TimeCounts value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+    private static class Tally {
+        StatusCounts counts;
+        boolean exact;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking.counter;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Tracks, per user, the booking changes between their start in the service and the end of their transaction, and
+ * whether one of them overlapped a load of that user's counts. Such a load may or may not have seen the change, so
+ * its result must not take increments. Caffeine runs at most one load per key at a time, which is all this relies
+ * on. A user's entry lives only while a change or a load is running.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+class ChangeLedger {
+    Map<Long, Activity> activities = new ConcurrentHashMap<>();
+
+    void changeStarted(Long userId) {
+        activities.compute(userId, (id, activity) -> {
+            Activity started = activity == null ? new Activity() : activity;
+            started.changes++;
+            started.overlapped = true;
+            return started;
+        });
+    }
+
+    void changeFinished(Long userId) {
+        activities.computeIfPresent(userId, (id, activity) -> {
+            activity.changes--;
+            return activity.isIdle() ? null : activity;
+        });
+    }
+
+    void loadStarted(Long userId) {
+        activities.compute(userId, (id, activity) -> {
+            Activity started = activity == null ? new Activity() : activity;
+            started.loads++;
+            started.overlapped = started.changes > 0;
+            return started;
+        });
+    }
+
+    /* Returns whether the load ran clear of every change, so that its counts are exact. */
+    boolean loadFinished(Long userId) {
+        boolean[] clear = new boolean[1];
+        activities.computeIfPresent(userId, (id, activity) -> {
+            clear[0] = !activity.overlapped;
+            activity.loads--;
+            return activity.isIdle() ? null : activity;
+        });
+        return clear[0];
+    }
+
+    private static class Activity {
+        int changes;
+        int loads;
+        boolean overlapped;
+
+        boolean isIdle() {
+            return changes == 0 && loads == 0;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.counter;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class StatusCounts {
+    long waiting;
+    long rejected;
+
+    public StatusCounts(Long waiting, Long rejected) {
+        this.waiting = waiting == null ? 0 : waiting;
+        this.rejected = rejected == null ? 0 : rejected;
+    }
+
+    StatusCounts plus(long waiting, long rejected) {
+        return new StatusCounts(this.waiting + waiting, this.rejected + rejected);
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.counter;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/*
+ * Counts of a user's bookings by their position relative to the moment they were taken. changesAt is the
+ * nearest later start or end, i.e. the first moment any booking can move between PAST, CURRENT and FUTURE;
+ * it is null when no booking has a start or end in the future.
+ */
+@Getter
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class TimeCounts {
+    long all;
+    long past;
+    long future;
+    long current;
+    LocalDateTime changesAt;
+
+    public TimeCounts(Long all, Long past, Long future, Long current, LocalDateTime nextStart,
+                      LocalDateTime nextEnd) {
+        this.all = all == null ? 0 : all;
+        this.past = past == null ? 0 : past;
+        this.future = future == null ? 0 : future;
+        this.current = current == null ? 0 : current;
+        if (nextStart == null || nextEnd != null && nextEnd.isBefore(nextStart)) {
+            this.changesAt = nextEnd;
+        } else {
+            this.changesAt = nextStart;
+        }
+    }
+}
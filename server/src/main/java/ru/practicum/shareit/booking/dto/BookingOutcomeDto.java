@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.BookingStatus;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BookingOutcomeDto {
+    Long bookingId;
+    BookingStatus status;
+    String error;
+}
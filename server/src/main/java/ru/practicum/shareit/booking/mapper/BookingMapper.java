@@ -5,6 +5,7 @@ import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,6 +23,17 @@ public class BookingMapper {
                 .build();
     }
 
+    public static BookingDto toBookingDto(BookingView booking) {
+        return BookingDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(booking.getStatus())
+                .booker(new BookingDto.Booker(booking.getBookerId(), booking.getBookerName()))
+                .item(new BookingDto.Item(booking.getItemId(), booking.getItemName()))
+                .build();
+    }
+
     public static Booking toBooking(BookingShortDto bookingShortDto) {
         return Booking.builder()
                 .start(bookingShortDto.getStart())
@@ -29,7 +41,7 @@ public class BookingMapper {
                 .build();
     }
 
-    public static List<BookingDto> toListBookingDto(List<Booking> bookings) {
+    public static List<BookingDto> toListBookingDto(List<BookingView> bookings) {
         return bookings.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
     }
 }
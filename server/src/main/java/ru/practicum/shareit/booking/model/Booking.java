@@ -11,6 +11,22 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = "Booking.withItemAndBooker",
+        attributeNodes = {@NamedAttributeNode("item"), @NamedAttributeNode("booker")})
+@NamedNativeQuery(name = "Booking.findLastAndNextByItemIdIn",
+        query = "select id, start_date, end_date, item_id, booker_id from (" +
+                "select b.id, b.start_date, b.end_date, b.item_id, b.booker_id, " +
+                "row_number() over (partition by b.item_id, b.start_date > :now " +
+                "order by case when b.start_date > :now then b.start_date end, b.start_date desc, b.id) as slot_rank " +
+                "from bookings b where b.item_id in (:itemIds) and b.status = :status) ranked " +
+                "where slot_rank = 1",
+        resultSetMapping = "Booking.slot")
+@SqlResultSetMapping(name = "Booking.slot", classes = @ConstructorResult(targetClass = BookingSlot.class, columns = {
+        @ColumnResult(name = "id", type = Long.class),
+        @ColumnResult(name = "start_date", type = LocalDateTime.class),
+        @ColumnResult(name = "end_date", type = LocalDateTime.class),
+        @ColumnResult(name = "item_id", type = Long.class),
+        @ColumnResult(name = "booker_id", type = Long.class)}))
 @Getter
 @Setter
 @Builder
@@ -19,7 +35,8 @@ import java.time.LocalDateTime;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -28,15 +45,18 @@ public class Booking {
     @Column(name = "end_date", nullable = false)
     LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", referencedColumnName = "id", nullable = false)
     Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id", referencedColumnName = "id", nullable = false)
     User booker;
 
     @Enumerated(EnumType.STRING)
     @Column(length = 10)
     BookingStatus status;
+
+    @Version
+    Long version;
 }
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/* The dates a booking holds on its item, as the availability index and the item's last and next booking need. */
+@Getter
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class BookingSlot {
+    Long id;
+    LocalDateTime start;
+    LocalDateTime end;
+    Long itemId;
+    Long bookerId;
+
+    public BookingSlot(Long id, LocalDateTime start, LocalDateTime end, Long itemId, Long bookerId) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.itemId = itemId;
+        this.bookerId = bookerId;
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class BookingVersion {
+    long version;
+    long itemVersion;
+    long bookerVersion;
+    Long bookerId;
+    Long ownerId;
+
+    public BookingVersion(Long version, Long itemVersion, Long bookerVersion, Long bookerId, Long ownerId) {
+        this.version = version;
+        this.itemVersion = itemVersion;
+        this.bookerVersion = bookerVersion;
+        this.bookerId = bookerId;
+        this.ownerId = ownerId;
+    }
+
+    public String toETag() {
+        return String.format("%d.%d.%d", version, itemVersion, bookerVersion);
+    }
+}
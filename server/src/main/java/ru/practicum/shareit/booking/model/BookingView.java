@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/* A booking as the list endpoints show it: read in one query together with its item and booker names. */
+@Getter
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class BookingView {
+    Long id;
+    LocalDateTime start;
+    LocalDateTime end;
+    BookingStatus status;
+    Long itemId;
+    String itemName;
+    Long bookerId;
+    String bookerName;
+
+    public BookingView(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                       Long itemId, String itemName, Long bookerId, String bookerName) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.status = status;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.bookerId = bookerId;
+        this.bookerName = bookerName;
+    }
+}
@@ -1,41 +1,250 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.counter.StatusCounts;
+import ru.practicum.shareit.booking.counter.TimeCounts;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.booking.model.BookingSlot;
+import ru.practicum.shareit.booking.model.BookingVersion;
+import ru.practicum.shareit.booking.model.BookingView;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBooker(User booker, Pageable pageable);
+    String BOOKING_VIEW = "select new ru.practicum.shareit.booking.model.BookingView(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, u.id, u.name) from Booking b join b.item i join b.booker u ";
+    String BY_BOOKER = BOOKING_VIEW + "where u.id = :userId ";
+    String BY_OWNER = BOOKING_VIEW + "where i.owner.id = :userId ";
+    String AFTER_CURSOR = "and (b.start < :start or (b.start = :start and b.id < :id)) ";
+    String PAST = "and b.end < :now ";
+    String FUTURE = "and b.start > :now ";
+    String CURRENT = "and b.start < :now and b.end > :now ";
+    String WITH_STATUS = "and b.status = :status ";
+    String APPROVE = "update Booking b set b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED, " +
+            "b.version = b.version + 1 ";
+    String REJECT = "update Booking b set b.status = ru.practicum.shareit.booking.BookingStatus.REJECTED, " +
+            "b.version = b.version + 1 ";
+    String WAITING_OWNED_BY = "and b.status = ru.practicum.shareit.booking.BookingStatus.WAITING " +
+            "and exists (select i.id from Item i where i.id = b.item.id and i.owner.id = :ownerId) ";
+    String NO_APPROVED_OVERLAP = "and not exists (select o.id from Booking o where o.item.id = b.item.id " +
+            "and o.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "and o.start < b.end and o.end > b.start) ";
+    String STATUS_COUNTS = "select new ru.practicum.shareit.booking.counter.StatusCounts(" +
+            "sum(case when b.status = ru.practicum.shareit.booking.BookingStatus.WAITING then 1 else 0 end), " +
+            "sum(case when b.status = ru.practicum.shareit.booking.BookingStatus.REJECTED then 1 else 0 end)) " +
+            "from Booking b ";
+    String TIME_COUNTS = "select new ru.practicum.shareit.booking.counter.TimeCounts(count(b), " +
+            "sum(case when b.end < :now then 1 else 0 end), " +
+            "sum(case when b.start > :now then 1 else 0 end), " +
+            "sum(case when b.start < :now and b.end > :now then 1 else 0 end), " +
+            "min(case when b.start >= :now then b.start else null end), " +
+            "min(case when b.end >= :now then b.end else null end)) " +
+            "from Booking b ";
+    String EXPORT_ORDER = "order by b.start desc, b.id desc";
+    String EXPORT_FETCH_SIZE = "500";
+
+    @EntityGraph("Booking.withItemAndBooker")
+    Optional<Booking> findWithItemAndBookerById(Long id);
+
+    @Query(BOOKING_VIEW + "where b.id = :id")
+    Optional<BookingView> findViewById(@Param("id") Long id);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingVersion(b.version, i.version, u.version, u.id, " +
+            "i.owner.id) from Booking b join b.item i join b.booker u where b.id = :id")
+    Optional<BookingVersion> findVersionById(@Param("id") Long id);
+
+    @Query("select b.item.id from Booking b where b.id = :id")
+    Optional<Long> findItemIdById(@Param("id") Long id);
+
+    @Query("select distinct b.item.id from Booking b where b.id in :ids")
+    List<Long> findItemIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(BY_OWNER + "and b.id in :ids")
+    List<BookingView> findAllByOwnerAndIdIn(@Param("userId") Long ownerId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(APPROVE + "where b.id = :id " + WAITING_OWNED_BY + NO_APPROVED_OVERLAP)
+    int approveIfWaiting(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+    @Modifying
+    @Query(REJECT + "where b.id = :id " + WAITING_OWNED_BY)
+    int rejectIfWaiting(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+    @Modifying
+    @Query(APPROVE + "where b.id in :ids " + WAITING_OWNED_BY + NO_APPROVED_OVERLAP)
+    int approveAllIfWaiting(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId);
+
+    @Modifying
+    @Query(REJECT + "where b.id in :ids " + WAITING_OWNED_BY)
+    int rejectAllIfWaiting(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingSlot(b.id, b.start, b.end, b.item.id, b.booker.id) " +
+            "from Booking b where b.item.id = :itemId and b.status in :statuses")
+    List<BookingSlot> findAllByItemIdAndStatusIn(@Param("itemId") Long itemId,
+                                                 @Param("statuses") Collection<BookingStatus> statuses);
+
+    @Query(STATUS_COUNTS + "where b.booker.id = :userId")
+    StatusCounts countStatusesByBooker(@Param("userId") Long bookerId);
+
+    @Query(STATUS_COUNTS + "where b.item.id in (select i.id from Item i where i.owner.id = :userId)")
+    StatusCounts countStatusesByOwner(@Param("userId") Long ownerId);
+
+    @Query(TIME_COUNTS + "where b.booker.id = :userId")
+    TimeCounts countTimesByBooker(@Param("userId") Long bookerId, @Param("now") LocalDateTime now);
+
+    @Query(TIME_COUNTS + "where b.item.id in (select i.id from Item i where i.owner.id = :userId)")
+    TimeCounts countTimesByOwner(@Param("userId") Long ownerId, @Param("now") LocalDateTime now);
+
+    @Query(BY_BOOKER)
+    List<BookingView> findAllByBooker(@Param("userId") Long bookerId, Pageable pageable);
+
+    @Query(BY_BOOKER + PAST)
+    List<BookingView> findPastByBooker(@Param("userId") Long bookerId, @Param("now") LocalDateTime now,
+                                       Pageable pageable);
+
+    @Query(BY_BOOKER + FUTURE)
+    List<BookingView> findFutureByBooker(@Param("userId") Long bookerId, @Param("now") LocalDateTime now,
+                                         Pageable pageable);
+
+    @Query(BY_BOOKER + CURRENT)
+    List<BookingView> findCurrentByBooker(@Param("userId") Long bookerId, @Param("now") LocalDateTime now,
+                                      Pageable pageable);
+
+    @Query(BY_BOOKER + WITH_STATUS)
+    List<BookingView> findAllByBookerAndStatus(@Param("userId") Long bookerId, @Param("status") BookingStatus status,
+                                               Pageable pageable);
+
+    @Query(BY_OWNER)
+    List<BookingView> findAllByOwner(@Param("userId") Long ownerId, Pageable pageable);
+
+    @Query(BY_OWNER + PAST)
+    List<BookingView> findPastByOwner(@Param("userId") Long ownerId, @Param("now") LocalDateTime now,
+                                      Pageable pageable);
+
+    @Query(BY_OWNER + FUTURE)
+    List<BookingView> findFutureByOwner(@Param("userId") Long ownerId, @Param("now") LocalDateTime now,
+                                        Pageable pageable);
+
+    @Query(BY_OWNER + CURRENT)
+    List<BookingView> findCurrentByOwner(@Param("userId") Long ownerId, @Param("now") LocalDateTime now,
+                                         Pageable pageable);
+
+    @Query(BY_OWNER + WITH_STATUS)
+    List<BookingView> findAllByOwnerAndStatus(@Param("userId") Long ownerId, @Param("status") BookingStatus status,
+                                              Pageable pageable);
+
+    /* Marked native so Spring Data keeps the Booking.slot mapping instead of reading the rows as tuples. */
+    @Query(name = "Booking.findLastAndNextByItemIdIn", nativeQuery = true)
+    List<BookingSlot> findLastAndNextByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                                @Param("status") String status, @Param("now") LocalDateTime now);
+
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(Long bookerId, Long itemId, BookingStatus status,
+                                                           LocalDateTime end);
+
+    @Query(BY_BOOKER + AFTER_CURSOR)
+    List<BookingView> findAllByBookerAfter(@Param("userId") Long bookerId, @Param("start") LocalDateTime start,
+                                           @Param("id") Long id, Pageable pageable);
+
+    @Query(BY_BOOKER + PAST + AFTER_CURSOR)
+    List<BookingView> findPastByBookerAfter(@Param("userId") Long bookerId, @Param("now") LocalDateTime now,
+                                            @Param("start") LocalDateTime start, @Param("id") Long id,
+                                            Pageable pageable);
+
+    @Query(BY_BOOKER + FUTURE + AFTER_CURSOR)
+    List<BookingView> findFutureByBookerAfter(@Param("userId") Long bookerId, @Param("now") LocalDateTime now,
+                                              @Param("start") LocalDateTime start, @Param("id") Long id,
+                                              Pageable pageable);
+
+    @Query(BY_BOOKER + CURRENT + AFTER_CURSOR)
+    List<BookingView> findCurrentByBookerAfter(@Param("userId") Long bookerId, @Param("now") LocalDateTime now,
+                                               @Param("start") LocalDateTime start, @Param("id") Long id,
+                                               Pageable pageable);
+
+    @Query(BY_BOOKER + WITH_STATUS + AFTER_CURSOR)
+    List<BookingView> findAllByBookerAndStatusAfter(@Param("userId") Long bookerId,
+                                                    @Param("status") BookingStatus status,
+                                                    @Param("start") LocalDateTime start, @Param("id") Long id,
+                                                    Pageable pageable);
+
+    @Query(BY_OWNER + AFTER_CURSOR)
+    List<BookingView> findAllByOwnerAfter(@Param("userId") Long ownerId, @Param("start") LocalDateTime start,
+                                          @Param("id") Long id, Pageable pageable);
+
+    @Query(BY_OWNER + PAST + AFTER_CURSOR)
+    List<BookingView> findPastByOwnerAfter(@Param("userId") Long ownerId, @Param("now") LocalDateTime now,
+                                           @Param("start") LocalDateTime start, @Param("id") Long id,
+                                           Pageable pageable);
+
+    @Query(BY_OWNER + FUTURE + AFTER_CURSOR)
+    List<BookingView> findFutureByOwnerAfter(@Param("userId") Long ownerId, @Param("now") LocalDateTime now,
+                                             @Param("start") LocalDateTime start, @Param("id") Long id,
+                                             Pageable pageable);
 
-    List<Booking> findAllByBookerAndEndBefore(User booker, LocalDateTime time, Pageable pageable);
+    @Query(BY_OWNER + CURRENT + AFTER_CURSOR)
+    List<BookingView> findCurrentByOwnerAfter(@Param("userId") Long ownerId, @Param("now") LocalDateTime now,
+                                              @Param("start") LocalDateTime start, @Param("id") Long id,
+                                              Pageable pageable);
 
-    List<Booking> findAllByBookerAndStartAfter(User booker, LocalDateTime time, Pageable pageable);
+    @Query(BY_OWNER + WITH_STATUS + AFTER_CURSOR)
+    List<BookingView> findAllByOwnerAndStatusAfter(@Param("userId") Long ownerId,
+                                                   @Param("status") BookingStatus status,
+                                                   @Param("start") LocalDateTime start, @Param("id") Long id,
+                                                   Pageable pageable);
 
-    List<Booking> findAllByBookerAndStartBeforeAndEndAfter(User booker, LocalDateTime time, LocalDateTime timeNow, Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_BOOKER + EXPORT_ORDER)
+    Stream<BookingView> streamAllByBooker(@Param("userId") Long bookerId);
 
-    List<Booking> findAllByBookerAndStatusEquals(User booker, BookingStatus bookingStatus, Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_BOOKER + PAST + EXPORT_ORDER)
+    Stream<BookingView> streamPastByBooker(@Param("userId") Long bookerId, @Param("now") LocalDateTime now);
 
-    List<Booking> findAllByItemOwnerId(Long owner, Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_BOOKER + FUTURE + EXPORT_ORDER)
+    Stream<BookingView> streamFutureByBooker(@Param("userId") Long bookerId, @Param("now") LocalDateTime now);
 
-    List<Booking> findAllByItemOwnerIdAndEndBefore(Long owner, LocalDateTime time, Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_BOOKER + CURRENT + EXPORT_ORDER)
+    Stream<BookingView> streamCurrentByBooker(@Param("userId") Long bookerId, @Param("now") LocalDateTime now);
 
-    List<Booking> findAllByItemOwnerIdAndStartAfter(Long owner, LocalDateTime time, Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_BOOKER + WITH_STATUS + EXPORT_ORDER)
+    Stream<BookingView> streamAllByBookerAndStatus(@Param("userId") Long bookerId,
+                                                   @Param("status") BookingStatus status);
 
-    List<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfter(Long owner, LocalDateTime time, LocalDateTime timeNow, Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_OWNER + EXPORT_ORDER)
+    Stream<BookingView> streamAllByOwner(@Param("userId") Long ownerId);
 
-    List<Booking> findAllByItemOwnerIdAndStatusEquals(Long owner, BookingStatus bookingStatus, Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_OWNER + PAST + EXPORT_ORDER)
+    Stream<BookingView> streamPastByOwner(@Param("userId") Long ownerId, @Param("now") LocalDateTime now);
 
-    List<Booking> findByItemInAndStatusEqualsAndStartLessThanEqualOrderByStartDesc(List<Item> items, BookingStatus bookingStatus, LocalDateTime time);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_OWNER + FUTURE + EXPORT_ORDER)
+    Stream<BookingView> streamFutureByOwner(@Param("userId") Long ownerId, @Param("now") LocalDateTime now);
 
-    List<Booking> findByItemInAndStatusEqualsAndStartAfterOrderByStart(List<Item> items, BookingStatus bookingStatus, LocalDateTime time);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_OWNER + CURRENT + EXPORT_ORDER)
+    Stream<BookingView> streamCurrentByOwner(@Param("userId") Long ownerId, @Param("now") LocalDateTime now);
 
-    List<Booking> findAllByBookerAndItemAndStatusEqualsAndEndBefore(User booker, Item item, BookingStatus bookingStatus, LocalDateTime time);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_OWNER + WITH_STATUS + EXPORT_ORDER)
+    Stream<BookingView> streamAllByOwnerAndStatus(@Param("userId") Long ownerId, @Param("status") BookingStatus status);
 }
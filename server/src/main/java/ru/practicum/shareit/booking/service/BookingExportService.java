@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.State;
+
+public interface BookingExportService {
+    StreamingResponseBody exportByUser(Long userId, State state);
+
+    StreamingResponseBody exportByOwner(Long userId, State state);
+}
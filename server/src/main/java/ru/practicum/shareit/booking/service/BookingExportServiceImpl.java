@@ -0,0 +1,129 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.cache.UserCache;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Service
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class BookingExportServiceImpl implements BookingExportService {
+    static int FLUSH_EVERY = 500;
+
+    ObjectMapper objectMapper;
+    ObjectWriter writer;
+    BookingRepository bookingRepository;
+    UserCache userCache;
+    TransactionTemplate transactionTemplate;
+    EntityManager entityManager;
+
+    public BookingExportServiceImpl(ObjectMapper objectMapper, BookingRepository bookingRepository,
+                                    UserCache userCache, PlatformTransactionManager transactionManager,
+                                    EntityManager entityManager) {
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.bookingRepository = bookingRepository;
+        this.userCache = userCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public StreamingResponseBody exportByUser(Long userId, State state) {
+        findUserById(userId);
+        return out -> export(out, () -> streamByUser(userId, state, LocalDateTime.now()));
+    }
+
+    @Override
+    public StreamingResponseBody exportByOwner(Long userId, State state) {
+        findUserById(userId);
+        return out -> export(out, () -> streamByOwner(userId, state, LocalDateTime.now()));
+    }
+
+    private void export(OutputStream out, Supplier<Stream<BookingView>> query) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<BookingView> bookings = query.get()) {
+                    int written = 0;
+                    for (Iterator<BookingView> iterator = bookings.iterator(); iterator.hasNext(); ) {
+                        writer.writeValue(generator, BookingMapper.toBookingDto(iterator.next()));
+                        generator.writeRaw('\n');
+                        if (++written % FLUSH_EVERY == 0) {
+                            generator.flush();
+                            entityManager.clear();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Stream<BookingView> streamByUser(Long userId, State state, LocalDateTime now) {
+        switch (state) {
+            case PAST:
+                return bookingRepository.streamPastByBooker(userId, now);
+            case FUTURE:
+                return bookingRepository.streamFutureByBooker(userId, now);
+            case CURRENT:
+                return bookingRepository.streamCurrentByBooker(userId, now);
+            case WAITING:
+                return bookingRepository.streamAllByBookerAndStatus(userId, BookingStatus.WAITING);
+            case REJECTED:
+                return bookingRepository.streamAllByBookerAndStatus(userId, BookingStatus.REJECTED);
+            default:
+                return bookingRepository.streamAllByBooker(userId);
+        }
+    }
+
+    private Stream<BookingView> streamByOwner(Long userId, State state, LocalDateTime now) {
+        switch (state) {
+            case PAST:
+                return bookingRepository.streamPastByOwner(userId, now);
+            case FUTURE:
+                return bookingRepository.streamFutureByOwner(userId, now);
+            case CURRENT:
+                return bookingRepository.streamCurrentByOwner(userId, now);
+            case WAITING:
+                return bookingRepository.streamAllByOwnerAndStatus(userId, BookingStatus.WAITING);
+            case REJECTED:
+                return bookingRepository.streamAllByOwnerAndStatus(userId, BookingStatus.REJECTED);
+            default:
+                return bookingRepository.streamAllByOwner(userId);
+        }
+    }
+
+    private void findUserById(Long userId) {
+        if (userCache.find(userId).isEmpty()) {
+            throw new NotFoundException(String.format("User with %d id not found.", userId));
+        }
+    }
+}
@@ -1,18 +1,35 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface BookingService {
     Booking create(Booking booking, Long userId, Long itemId);
 
-    Booking confirmRequest(Long userId, Long id, Boolean isApproved);
+    BookingView confirmRequest(Long userId, Long id, Boolean isApproved);
+
+    List<BookingOutcomeDto> confirmRequests(Long userId, Collection<Long> ids, Boolean isApproved);
 
     Booking getById(Long userId, Long id);
 
-    List<Booking> getAllByUser(Long userId, State state, int from, int size);
+    String getETag(Long userId, Long id);
+
+    List<BookingView> getAllByUser(Long userId, State state, int from, int size);
+
+    List<BookingView> getAllByOwner(Long userId, State state, int from, int size);
+
+    List<BookingView> getAllByUser(Long userId, State state, PageCursor after, int size);
+
+    List<BookingView> getAllByOwner(Long userId, State state, PageCursor after, int size);
+
+    Map<State, Long> countByUser(Long userId);
 
-    List<Booking> getAllByOwner(Long userId, State state, int from, int size);
+    Map<State, Long> countByOwner(Long userId);
 }
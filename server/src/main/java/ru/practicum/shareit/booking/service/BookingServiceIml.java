@@ -7,20 +7,39 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.availability.StripedItemLocks;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingVersion;
+import ru.practicum.shareit.booking.model.BookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Transactional(readOnly = true)
 @Service
@@ -28,51 +47,47 @@ import java.util.List;
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class BookingServiceIml implements BookingService {
     BookingRepository bookingRepository;
-    UserRepository userRepository;
+    UserCache userCache;
     ItemRepository itemRepository;
-    static Sort SORT_BY_DESC = Sort.by(Sort.Direction.DESC, "start");
+    BookingAvailabilityIndex bookingAvailabilityIndex;
+    StripedItemLocks itemLocks;
+    BookingCounters bookingCounters;
+    TransactionTemplate transactionTemplate;
+    static Sort SORT_BY_DESC = Sort.by(Sort.Direction.DESC, "start", "id");
+    static int BULK_LIMIT = 100;
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @Override
     public Booking create(Booking booking, Long userId, Long itemId) {
-        User user = findUserById(userId);
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException(String.format("Item with %d id not found.", itemId)));
-        if (!item.getAvailable()) {
-            throw new ValidationException(String.format("Item %s isn't available.", item.getName()));
-        }
-        if (item.getOwner().getId().equals(userId)) {
-            throw new NotFoundException("Refused access.");
-        }
-        booking.setBooker(user);
-        booking.setItem(item);
-        booking.setStatus(BookingStatus.WAITING);
-        return bookingRepository.save(booking);
+        return itemLocks.withLock(itemId, () -> transactionTemplate.execute(status -> admit(booking, userId, itemId)));
     }
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @Override
-    public Booking confirmRequest(Long userId, Long id, Boolean isApproved) {
-        Booking booking = bookingRepository.findById(id)
+    public BookingView confirmRequest(Long userId, Long id, Boolean isApproved) {
+        Long itemId = bookingRepository.findItemIdById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("Booking with %d id not found.", id)));
-        findUserById(userId);
-        if (!booking.getItem().getOwner().getId().equals(userId)) {
-            throw new NotFoundException("Refused access.");
-        }
-        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
-            throw new ValidationException(String.format("Booking has %S already.", booking.getStatus()));
+        return itemLocks.withLock(itemId, () -> transactionTemplate.execute(status -> decide(userId, id, isApproved)));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Override
+    public List<BookingOutcomeDto> confirmRequests(Long userId, Collection<Long> ids, Boolean isApproved) {
+        if (ids == null || ids.isEmpty() || isApproved == null) {
+            throw new ValidationException("Booking ids and decision must be given.");
         }
-        if (isApproved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > BULK_LIMIT) {
+            throw new ValidationException(String.format("At most %d bookings can be decided at once.", BULK_LIMIT));
         }
-        return booking;
+        findUserById(userId);
+        return itemLocks.withLocks(bookingRepository.findItemIdsByIdIn(requested),
+                () -> transactionTemplate.execute(status -> decideAll(userId, requested, isApproved)));
     }
 
     @Override
     public Booking getById(Long userId, Long id) {
-        Booking booking = bookingRepository.findById(id)
+        Booking booking = bookingRepository.findWithItemAndBookerById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("Booking with %d id not found.", id)));
         findUserById(userId);
         if (!booking.getBooker().getId().equals(userId) && !booking.getItem().getOwner().getId().equals(userId)) {
@@ -82,65 +97,286 @@ public class BookingServiceIml implements BookingService {
     }
 
     @Override
-    public List<Booking> getAllByUser(Long userId, State state, int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size, SORT_BY_DESC);
-        User booker = findUserById(userId);
-        List<Booking> bookings = List.of();
+    public String getETag(Long userId, Long id) {
+        BookingVersion version = bookingRepository.findVersionById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Booking with %d id not found.", id)));
+        findUserById(userId);
+        if (!version.getBookerId().equals(userId) && !version.getOwnerId().equals(userId)) {
+            throw new NotFoundException("Refused access. User or Owner don't match.");
+        }
+        return version.toETag();
+    }
+
+    @Override
+    public List<BookingView> getAllByUser(Long userId, State state, int from, int size) {
+        Pageable pageable = OffsetPageRequest.of(from, size, SORT_BY_DESC);
+        findUserById(userId);
+        List<BookingView> bookings = List.of();
         switch (state) {
             case ALL:
-                bookings = bookingRepository.findAllByBooker(booker, pageable);
+                bookings = bookingRepository.findAllByBooker(userId, pageable);
                 break;
             case PAST:
-                bookings = bookingRepository.findAllByBookerAndEndBefore(booker, LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findPastByBooker(userId, LocalDateTime.now(), pageable);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findAllByBookerAndStartAfter(booker, LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findFutureByBooker(userId, LocalDateTime.now(), pageable);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findAllByBookerAndStartBeforeAndEndAfter(booker, LocalDateTime.now(),
-                        LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findCurrentByBooker(userId, LocalDateTime.now(), pageable);
                 break;
             case WAITING:
-                bookings = bookingRepository.findAllByBookerAndStatusEquals(booker, BookingStatus.WAITING, pageable);
+                bookings = bookingRepository.findAllByBookerAndStatus(userId, BookingStatus.WAITING, pageable);
                 break;
             case REJECTED:
-                bookings = bookingRepository.findAllByBookerAndStatusEquals(booker, BookingStatus.REJECTED, pageable);
+                bookings = bookingRepository.findAllByBookerAndStatus(userId, BookingStatus.REJECTED, pageable);
                 break;
         }
         return bookings;
     }
 
     @Override
-    public List<Booking> getAllByOwner(Long userId, State state, int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size, SORT_BY_DESC);
+    public List<BookingView> getAllByOwner(Long userId, State state, int from, int size) {
+        Pageable pageable = OffsetPageRequest.of(from, size, SORT_BY_DESC);
         findUserById(userId);
-        List<Booking> bookings = List.of();
+        List<BookingView> bookings = List.of();
         switch (state) {
             case ALL:
-                bookings = bookingRepository.findAllByItemOwnerId(userId, pageable);
+                bookings = bookingRepository.findAllByOwner(userId, pageable);
                 break;
             case PAST:
-                bookings = bookingRepository.findAllByItemOwnerIdAndEndBefore(userId, LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findPastByOwner(userId, LocalDateTime.now(), pageable);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findAllByItemOwnerIdAndStartAfter(userId, LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findFutureByOwner(userId, LocalDateTime.now(), pageable);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(userId, LocalDateTime.now(),
-                        LocalDateTime.now(), pageable);
+                bookings = bookingRepository.findCurrentByOwner(userId, LocalDateTime.now(), pageable);
                 break;
             case WAITING:
-                bookings = bookingRepository.findAllByItemOwnerIdAndStatusEquals(userId, BookingStatus.WAITING, pageable);
+                bookings = bookingRepository.findAllByOwnerAndStatus(userId, BookingStatus.WAITING, pageable);
                 break;
             case REJECTED:
-                bookings = bookingRepository.findAllByItemOwnerIdAndStatusEquals(userId, BookingStatus.REJECTED, pageable);
+                bookings = bookingRepository.findAllByOwnerAndStatus(userId, BookingStatus.REJECTED, pageable);
                 break;
         }
         return bookings;
     }
 
+    @Override
+    public List<BookingView> getAllByUser(Long userId, State state, PageCursor after, int size) {
+        if (after == null) {
+            return getAllByUser(userId, state, 0, size);
+        }
+        Pageable pageable = PageRequest.of(0, size, SORT_BY_DESC);
+        findUserById(userId);
+        LocalDateTime start = after.getTime();
+        Long id = after.getId();
+        List<BookingView> bookings = List.of();
+        switch (state) {
+            case ALL:
+                bookings = bookingRepository.findAllByBookerAfter(userId, start, id, pageable);
+                break;
+            case PAST:
+                bookings = bookingRepository.findPastByBookerAfter(userId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findFutureByBookerAfter(userId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.findCurrentByBookerAfter(userId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findAllByBookerAndStatusAfter(userId, BookingStatus.WAITING, start, id,
+                        pageable);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findAllByBookerAndStatusAfter(userId, BookingStatus.REJECTED, start, id,
+                        pageable);
+                break;
+        }
+        return bookings;
+    }
+
+    @Override
+    public List<BookingView> getAllByOwner(Long userId, State state, PageCursor after, int size) {
+        if (after == null) {
+            return getAllByOwner(userId, state, 0, size);
+        }
+        Pageable pageable = PageRequest.of(0, size, SORT_BY_DESC);
+        findUserById(userId);
+        LocalDateTime start = after.getTime();
+        Long id = after.getId();
+        List<BookingView> bookings = List.of();
+        switch (state) {
+            case ALL:
+                bookings = bookingRepository.findAllByOwnerAfter(userId, start, id, pageable);
+                break;
+            case PAST:
+                bookings = bookingRepository.findPastByOwnerAfter(userId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findFutureByOwnerAfter(userId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.findCurrentByOwnerAfter(userId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findAllByOwnerAndStatusAfter(userId, BookingStatus.WAITING, start, id,
+                        pageable);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findAllByOwnerAndStatusAfter(userId, BookingStatus.REJECTED, start, id,
+                        pageable);
+                break;
+        }
+        return bookings;
+    }
+
+    @Override
+    public Map<State, Long> countByUser(Long userId) {
+        findUserById(userId);
+        return bookingCounters.countByBooker(userId);
+    }
+
+    @Override
+    public Map<State, Long> countByOwner(Long userId) {
+        findUserById(userId);
+        return bookingCounters.countByOwner(userId);
+    }
+
+    private Booking admit(Booking booking, Long userId, Long itemId) {
+        User user = findUserById(userId);
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException(String.format("Item with %d id not found.", itemId)));
+        if (!item.getAvailable()) {
+            throw new ValidationException(String.format("Item %s isn't available.", item.getName()));
+        }
+        if (item.getOwner().getId().equals(userId)) {
+            throw new NotFoundException("Refused access.");
+        }
+        if (!bookingAvailabilityIndex.isFree(itemId, booking.getStart(), booking.getEnd())) {
+            throw new ValidationException(String.format("Item %s is already booked for these dates.", item.getName()));
+        }
+        booking.setBooker(user);
+        booking.setItem(item);
+        booking.setStatus(BookingStatus.WAITING);
+        Booking savedBooking = bookingRepository.save(booking);
+        bookingAvailabilityIndex.add(savedBooking);
+        bookingCounters.created(userId, item.getOwner().getId());
+        return savedBooking;
+    }
+
+    private BookingView decide(Long userId, Long id, Boolean isApproved) {
+        int updated = isApproved
+                ? bookingRepository.approveIfWaiting(id, userId)
+                : bookingRepository.rejectIfWaiting(id, userId);
+        if (updated == 0) {
+            throw explainRefusal(userId, id);
+        }
+        BookingView booking = bookingRepository.findViewById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Booking with %d id not found.", id)));
+        if (!isApproved) {
+            bookingAvailabilityIndex.remove(booking);
+        }
+        bookingCounters.decided(booking.getBookerId(), userId, booking.getStatus());
+        return booking;
+    }
+
+    private List<BookingOutcomeDto> decideAll(Long userId, Set<Long> requested, Boolean isApproved) {
+        Map<Long, BookingView> owned = bookingRepository.findAllByOwnerAndIdIn(userId, requested).stream()
+                .collect(Collectors.toMap(BookingView::getId, Function.identity()));
+        Map<Long, BookingStatus> statuses = new HashMap<>();
+        Map<Long, String> errors = new HashMap<>();
+        List<BookingView> waiting = new ArrayList<>();
+        for (Long id : requested) {
+            BookingView booking = owned.get(id);
+            if (booking == null) {
+                errors.put(id, String.format("Booking with %d id not found.", id));
+            } else if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+                statuses.put(id, booking.getStatus());
+                errors.put(id, String.format("Booking has %S already.", booking.getStatus()));
+            } else {
+                waiting.add(booking);
+            }
+        }
+        if (isApproved) {
+            waiting = withoutMutualOverlaps(waiting, statuses, errors);
+        }
+        Map<Long, BookingView> decided = waiting.stream()
+                .collect(Collectors.toMap(BookingView::getId, Function.identity()));
+        BookingStatus decision = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        int updated = decided.isEmpty() ? 0 : isApproved
+                ? bookingRepository.approveAllIfWaiting(decided.keySet(), userId)
+                : bookingRepository.rejectAllIfWaiting(decided.keySet(), userId);
+        if (updated < decided.size()) {
+            Map<Long, BookingView> current = bookingRepository.findAllByOwnerAndIdIn(userId, decided.keySet()).stream()
+                    .collect(Collectors.toMap(BookingView::getId, Function.identity()));
+            for (Long id : List.copyOf(decided.keySet())) {
+                BookingView booking = current.get(id);
+                if (booking == null) {
+                    errors.put(id, String.format("Booking with %d id not found.", id));
+                } else if (booking.getStatus().equals(BookingStatus.WAITING)) {
+                    statuses.put(id, BookingStatus.WAITING);
+                    errors.put(id, "Booking overlaps an approved booking.");
+                } else if (!booking.getStatus().equals(decision)) {
+                    statuses.put(id, booking.getStatus());
+                    errors.put(id, String.format("Booking has %S already.", booking.getStatus()));
+                } else {
+                    continue;
+                }
+                decided.remove(id);
+            }
+        }
+        decided.values().forEach(booking -> {
+            statuses.put(booking.getId(), decision);
+            if (!isApproved) {
+                bookingAvailabilityIndex.remove(booking);
+            }
+            bookingCounters.decided(booking.getBookerId(), userId, decision);
+        });
+        return requested.stream()
+                .map(id -> new BookingOutcomeDto(id, statuses.get(id), errors.get(id)))
+                .collect(Collectors.toList());
+    }
+
+    private RuntimeException explainRefusal(Long userId, Long id) {
+        Booking booking = bookingRepository.findWithItemAndBookerById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Booking with %d id not found.", id)));
+        findUserById(userId);
+        if (!booking.getItem().getOwner().getId().equals(userId)) {
+            return new NotFoundException("Refused access.");
+        }
+        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+            return new ValidationException(String.format("Booking has %S already.", booking.getStatus()));
+        }
+        return new ValidationException("Booking overlaps an approved booking.");
+    }
+
+    private static List<BookingView> withoutMutualOverlaps(List<BookingView> bookings,
+                                                           Map<Long, BookingStatus> statuses,
+                                                           Map<Long, String> errors) {
+        List<BookingView> sorted = new ArrayList<>(bookings);
+        sorted.sort(Comparator.comparing(BookingView::getItemId)
+                .thenComparing(BookingView::getStart)
+                .thenComparing(BookingView::getId));
+        List<BookingView> accepted = new ArrayList<>();
+        BookingView previous = null;
+        for (BookingView booking : sorted) {
+            if (previous != null && previous.getItemId().equals(booking.getItemId())
+                    && booking.getStart().isBefore(previous.getEnd())) {
+                statuses.put(booking.getId(), BookingStatus.WAITING);
+                errors.put(booking.getId(), "Booking overlaps an approved booking.");
+                continue;
+            }
+            accepted.add(booking);
+            previous = booking;
+        }
+        return accepted;
+    }
+
     private User findUserById(Long userId) {
-        return userRepository.findById(userId)
+        return userCache.find(userId)
                 .orElseThrow(() -> new NotFoundException(String.format("User with %d id not found.", userId)));
     }
 }
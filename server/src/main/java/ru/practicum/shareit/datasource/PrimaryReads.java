@@ -0,0 +1,41 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/*
+ * Fills process-wide caches from the primary only. A load runs in the caller's own transaction, never in a second
+ * one, and raises the routing key so that a transaction which has no connection yet takes it from the primary. A
+ * read-only transaction already bound to the replica gets the loaded value for itself, but the value is not
+ * cached, since the replica may lag behind and what is cached outlives the transaction.
+ */
+@Component
+public class PrimaryReads {
+    static ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    public <K, V> V get(Cache<K, V> cache, K key, Function<K, V> loader) {
+        if (ReadWriteRoutingDataSource.isBoundToReplica()) {
+            V cached = cache.getIfPresent(key);
+            return cached != null ? cached : loader.apply(key);
+        }
+        return cache.get(key, id -> onPrimary(loader, id));
+    }
+
+    public static boolean isActive() {
+        return Boolean.TRUE.equals(ACTIVE.get());
+    }
+
+    private static <K, V> V onPrimary(Function<K, V> loader, K key) {
+        Boolean outer = ACTIVE.get();
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return loader.apply(key);
+        } finally {
+            if (outer == null) {
+                ACTIVE.remove();
+            }
+        }
+    }
+}
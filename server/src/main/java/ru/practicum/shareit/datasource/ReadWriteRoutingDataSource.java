@@ -0,0 +1,57 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+/*
+ * Sends connections of read-only transactions to the replica unless the current user is pinned by a recent write.
+ * Has to sit behind a LazyConnectionDataSourceProxy: the transaction manager asks for a connection before the
+ * read-only flag of the new transaction is published. Loads run through PrimaryReads go to the primary. The route
+ * taken is kept with the transaction until it completes, so PrimaryReads can tell a load that would be served by
+ * the replica.
+ */
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    static Object ROUTE = ReadWriteRoutingDataSource.class.getName() + ".route";
+    ReadYourWrites readYourWrites;
+
+    public static boolean isBoundToReplica() {
+        return TransactionSynchronizationManager.getResource(ROUTE) == DataSourceRoute.REPLICA;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return DataSourceRoute.PRIMARY;
+        }
+        DataSourceRoute route = route();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(ROUTE)) {
+            TransactionSynchronizationManager.bindResource(ROUTE, route);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ROUTE);
+                }
+            });
+        }
+        return route;
+    }
+
+    private DataSourceRoute route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            AfterCommit.run(readYourWrites::pinCurrentUser);
+            return DataSourceRoute.PRIMARY;
+        }
+        if (PrimaryReads.isActive()) {
+            return DataSourceRoute.PRIMARY;
+        }
+        return readYourWrites.isCurrentUserPinned() ? DataSourceRoute.PRIMARY : DataSourceRoute.REPLICA;
+    }
+}
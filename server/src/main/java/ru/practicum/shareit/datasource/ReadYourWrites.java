@@ -0,0 +1,60 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Remembers which users wrote recently. Their reads stay on the primary until the window passes, so a replica
+ * that lags behind never hides a user's own changes from them.
+ */
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ReadYourWrites {
+    static int PURGE_THRESHOLD = 10_000;
+    ThreadLocal<Long> currentUser = new ThreadLocal<>();
+    Map<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+    long windowNanos;
+
+    public ReadYourWrites(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void bind(Long userId) {
+        currentUser.set(userId);
+    }
+
+    public void unbind() {
+        currentUser.remove();
+    }
+
+    public void pinCurrentUser() {
+        Long userId = currentUser.get();
+        if (userId == null || windowNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (pinnedUntil.size() > PURGE_THRESHOLD) {
+            pinnedUntil.values().removeIf(deadline -> deadline - now <= 0);
+        }
+        pinnedUntil.put(userId, now + windowNanos);
+    }
+
+    public boolean isCurrentUserPinned() {
+        Long userId = currentUser.get();
+        if (userId == null) {
+            return false;
+        }
+        Long deadline = pinnedUntil.get(userId);
+        if (deadline == null) {
+            return false;
+        }
+        if (deadline - System.nanoTime() > 0) {
+            return true;
+        }
+        pinnedUntil.remove(userId, deadline);
+        return false;
+    }
+}
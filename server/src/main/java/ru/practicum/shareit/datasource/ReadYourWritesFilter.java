@@ -0,0 +1,42 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    static String USER_HEADER = "X-Sharer-User-Id";
+    ReadYourWrites readYourWrites;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        readYourWrites.bind(userId(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            readYourWrites.unbind();
+        }
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        String header = request.getHeader(USER_HEADER);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
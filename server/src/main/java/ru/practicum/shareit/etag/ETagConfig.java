@@ -0,0 +1,21 @@
+package ru.practicum.shareit.etag;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/*
+ * Hashed ETags for the cached reads without a version of their own. Items, requests and bookings by id answer
+ * If-None-Match from their version columns before loading anything, see the controllers.
+ */
+@Configuration
+public class ETagConfig {
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/users/*", "/items/search");
+        return registration;
+    }
+}
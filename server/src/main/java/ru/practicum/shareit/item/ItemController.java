@@ -3,14 +3,27 @@ package ru.practicum.shareit.item;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.CommentShortDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.CommentView;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -19,7 +32,9 @@ import java.util.List;
 @RequiredArgsConstructor
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class ItemController {
+    static int MAX_COMMENTS_PAGE_SIZE = 100;
     ItemService itemService;
+    ItemImportService itemImportService;
 
     @PostMapping
     public ItemDto create(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -27,6 +42,12 @@ public class ItemController {
         return ItemMapper.toItemDto(itemService.create(ItemMapper.toItem(itemDto), userId));
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ItemImportDto importItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                     InputStream body) throws IOException {
+        return itemImportService.importItems(userId, body);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestHeader("X-Sharer-User-Id") Long userId,
                           @RequestBody ItemDto itemDto,
@@ -35,15 +56,36 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto getById(@PathVariable("itemId") Long id, @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public ItemDto getById(@PathVariable("itemId") Long id, @RequestHeader("X-Sharer-User-Id") Long userId,
+                           WebRequest request) {
+        /* The tag is read before the view, so a write in between costs one more full response, never a stale one. */
+        if (request.checkNotModified(itemService.getETag(id, userId))) {
+            return null;
+        }
         return ItemMapper.toItemDtoWithBooking(itemService.getById(id, userId));
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable("itemId") Long id,
+                                               @RequestHeader("X-Sharer-User-Id") Long userId,
+                                               @RequestParam("start")
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                               @RequestParam("end")
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return ItemMapper.toItemAvailabilityDto(id, start, end, itemService.getFreeWindows(id, userId, start, end));
+    }
+
     @GetMapping
-    public List<ItemDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                @RequestParam(value = "from", defaultValue = "0") int from,
-                                @RequestParam(value = "size", defaultValue = "10") int size) {
-        return ItemMapper.toListItemDtoWithBooking(itemService.getAll(userId, from, size));
+    public ResponseEntity<List<ItemDto>> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @RequestParam(value = "from", defaultValue = "0") int from,
+                                                @RequestParam(value = "size", defaultValue = "10") int size,
+                                                @RequestParam(value = "cursor", required = false) String cursor) {
+        List<ItemView> items = cursor == null
+                ? itemService.getAll(userId, from, size)
+                : itemService.getAll(userId, PageCursor.decodeIdKeyed(cursor), size);
+        return ResponseEntity.ok()
+                .headers(PageCursor.nextCursorHeaders(items, size, item -> PageCursor.of(item.getId())))
+                .body(ItemMapper.toListItemDtoWithBooking(items));
     }
 
     @GetMapping("/search")
@@ -59,4 +101,19 @@ public class ItemController {
         return CommentMapper.toCommentDto(itemService.commented(CommentMapper.toComment(commentShortDto),
                 itemId, userId));
     }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@PathVariable("itemId") Long itemId,
+                                                        @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                        @RequestParam(value = "size", defaultValue = "10") int size,
+                                                        @RequestParam(value = "cursor", required = false)
+                                                        String cursor) {
+        int pageSize = Math.max(1, Math.min(size, MAX_COMMENTS_PAGE_SIZE));
+        List<CommentView> comments = itemService.getComments(itemId, userId, PageCursor.decodeTimeKeyed(cursor),
+                pageSize);
+        return ResponseEntity.ok()
+                .headers(PageCursor.nextCursorHeaders(comments, pageSize,
+                        comment -> PageCursor.of(comment.getCreated(), comment.getId())))
+                .body(CommentMapper.toListCommentDto(comments));
+    }
 }
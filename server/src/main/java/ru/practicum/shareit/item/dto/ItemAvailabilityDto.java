@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemAvailabilityDto {
+    Long itemId;
+    LocalDateTime start;
+    LocalDateTime end;
+    Boolean free;
+    List<WindowDto> freeWindows;
+
+    @Data
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    public static class WindowDto {
+        LocalDateTime start;
+        LocalDateTime end;
+    }
+}
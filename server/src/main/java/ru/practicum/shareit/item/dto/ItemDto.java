@@ -6,7 +6,7 @@ import lombok.Data;
 import lombok.experimental.FieldDefaults;
 
 import java.time.LocalDateTime;
-import java.util.Set;
+import java.util.List;
 
 @Data
 @Builder
@@ -19,7 +19,8 @@ public class ItemDto {
     Long requestId;
     BookingDto lastBooking;
     BookingDto nextBooking;
-    Set<CommentDto> comments;
+    List<CommentDto> comments;
+    Long commentCount;
 
     @Data
     @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ItemImportDto {
+    int imported;
+    List<Failure> failures;
+
+    @Data
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    public static class Failure {
+        int index;
+        String error;
+    }
+}
@@ -5,8 +5,9 @@ import lombok.NoArgsConstructor;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentShortDto;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentView;
 
-import java.util.Set;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -20,8 +21,17 @@ public class CommentMapper {
                 .build();
     }
 
-    public static Set<CommentDto> toListCommentDto(Set<Comment> comments) {
-        return comments.stream().map(CommentMapper::toCommentDto).collect(Collectors.toSet());
+    public static CommentDto toCommentDto(CommentView comment) {
+        return CommentDto.builder()
+                .id(comment.getId())
+                .text(comment.getText())
+                .authorName(comment.getAuthorName())
+                .created(comment.getCreated())
+                .build();
+    }
+
+    public static List<CommentDto> toListCommentDto(List<CommentView> comments) {
+        return comments.stream().map(CommentMapper::toCommentDto).collect(Collectors.toList());
     }
 
     public static Comment toComment(CommentShortDto commentShortDto) {
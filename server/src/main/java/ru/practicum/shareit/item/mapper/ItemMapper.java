@@ -2,10 +2,14 @@ package ru.practicum.shareit.item.mapper;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.availability.TimeWindow;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -19,26 +23,26 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .requestId(item.getRequester() != null ? item.getRequester() : null)
-                .comments(item.getComments() != null ? CommentMapper.toListCommentDto(item.getComments()) : null)
                 .build();
     }
 
-    public static ItemDto toItemDtoWithBooking(Item item) {
+    public static ItemDto toItemDtoWithBooking(ItemView item) {
         return ItemDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
-                .requestId(item.getRequester() != null ? item.getRequester() : null)
+                .requestId(item.getRequestId())
                 .lastBooking(item.getLastBooking() != null ?
                         new ItemDto.BookingDto(item.getLastBooking().getId(),
                                 item.getLastBooking().getStart(), item.getLastBooking().getEnd(),
-                                item.getLastBooking().getBooker().getId()) : null)
+                                item.getLastBooking().getBookerId()) : null)
                 .nextBooking(item.getNextBooking() != null ?
                         new ItemDto.BookingDto(item.getNextBooking().getId(),
                                 item.getNextBooking().getStart(), item.getNextBooking().getEnd(),
-                                item.getNextBooking().getBooker().getId()) : null)
+                                item.getNextBooking().getBookerId()) : null)
                 .comments(item.getComments() != null ? CommentMapper.toListCommentDto(item.getComments()) : null)
+                .commentCount(item.getCommentCount())
                 .build();
     }
 
@@ -52,25 +56,38 @@ public class ItemMapper {
                 .build();
     }
 
-    public static ItemShortDto toItemShortDto(Item item) {
+    public static ItemShortDto toItemShortDto(ItemView item) {
         return ItemShortDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
-                .requestId(item.getRequester() != null ? item.getRequester() : null)
+                .requestId(item.getRequestId())
                 .build();
     }
 
-    public static Set<ItemShortDto> toSetItemShortDto(Set<Item> items) {
+    public static Set<ItemShortDto> toSetItemShortDto(Set<ItemView> items) {
         return items.stream().map(ItemMapper::toItemShortDto).collect(Collectors.toSet());
     }
 
-    public static List<ItemDto> toListItemDtoWithBooking(List<Item> items) {
+    public static List<ItemDto> toListItemDtoWithBooking(List<ItemView> items) {
         return items.stream().map(ItemMapper::toItemDtoWithBooking).collect(Collectors.toList());
     }
 
     public static List<ItemDto> toListItemDto(List<Item> items) {
         return items.stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
     }
+
+    public static ItemAvailabilityDto toItemAvailabilityDto(Long itemId, LocalDateTime start, LocalDateTime end,
+                                                            List<TimeWindow> freeWindows) {
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .free(freeWindows.size() == 1 && freeWindows.get(0).equals(new TimeWindow(start, end)))
+                .freeWindows(freeWindows.stream()
+                        .map(window -> new ItemAvailabilityDto.WindowDto(window.getStart(), window.getEnd()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
 }
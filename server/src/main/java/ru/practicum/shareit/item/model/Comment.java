@@ -11,6 +11,22 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "comments")
+@NamedNativeQuery(name = "Comment.findNewestByItemIdIn",
+        query = "select id, text, item_id, author_name, created, total from (" +
+                "select c.id, c.text, c.item_id, u.name as author_name, c.created, " +
+                "row_number() over (partition by c.item_id order by c.created desc, c.id desc) as comment_rank, " +
+                "count(*) over (partition by c.item_id) as total " +
+                "from comments c join users u on u.id = c.author_id where c.item_id in (:itemIds)) ranked " +
+                "where comment_rank <= :limit order by item_id, comment_rank",
+        resultSetMapping = "Comment.preview")
+@SqlResultSetMapping(name = "Comment.preview", classes = @ConstructorResult(targetClass = CommentPreview.class,
+        columns = {
+                @ColumnResult(name = "id", type = Long.class),
+                @ColumnResult(name = "text", type = String.class),
+                @ColumnResult(name = "item_id", type = Long.class),
+                @ColumnResult(name = "author_name", type = String.class),
+                @ColumnResult(name = "created", type = LocalDateTime.class),
+                @ColumnResult(name = "total", type = Long.class)}))
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @Setter
@@ -20,17 +36,18 @@ import java.time.LocalDateTime;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Comment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = "comments_seq", allocationSize = 50)
     Long id;
 
     @Column(length = 1000, nullable = false)
     String text;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", referencedColumnName = "id", nullable = false)
     Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", referencedColumnName = "id", nullable = false)
     User author;
 
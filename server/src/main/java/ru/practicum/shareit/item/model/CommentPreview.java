@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Getter
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class CommentPreview {
+    CommentView comment;
+    long total;
+
+    public CommentPreview(Long id, String text, Long itemId, String authorName, LocalDateTime created, Long total) {
+        this.comment = new CommentView(id, text, itemId, authorName, created);
+        this.total = total;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Getter
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class CommentView {
+    Long id;
+    String text;
+    Long itemId;
+    String authorName;
+    LocalDateTime created;
+
+    public CommentView(Long id, String text, Long itemId, String authorName, LocalDateTime created) {
+        this.id = id;
+        this.text = text;
+        this.itemId = itemId;
+        this.authorName = authorName;
+        this.created = created;
+    }
+}
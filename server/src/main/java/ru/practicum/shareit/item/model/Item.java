@@ -2,14 +2,16 @@ package ru.practicum.shareit.item.model;
 
 import lombok.*;
 import lombok.experimental.FieldDefaults;
-import ru.practicum.shareit.booking.model.Booking;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
-import java.util.Set;
 
 @Entity
 @Table(name = "items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
 @Getter
 @Setter
 @Builder
@@ -18,7 +20,8 @@ import java.util.Set;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     Long id;
 
     @Column(length = 50, nullable = false)
@@ -30,19 +33,13 @@ public class Item {
     @Column(name = "is_available")
     Boolean available;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_owner")
     User owner;
 
     @Column(name = "request_id")
     Long requester;
 
-    @Transient
-    Booking lastBooking;
-
-    @Transient
-    Booking nextBooking;
-
-    @Transient
-    Set<Comment> comments;
+    @Version
+    Long version;
 }
\ No newline at end of file
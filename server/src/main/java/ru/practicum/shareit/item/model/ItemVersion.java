@@ -0,0 +1,44 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/*
+ * Everything the item view depends on, read without loading it. The service only adds comments and approves
+ * bookings, and booking dates never change, so their counts tell whether the previews or the last and next booking
+ * moved. Comments and bookings disappear only when their author or booker is deleted, and the user service raises
+ * the item version first. A rename of a comment author raises the sum of author versions.
+ */
+@Getter
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ItemVersion {
+    long version;
+    Long ownerId;
+    long comments;
+    LocalDateTime lastCommented;
+    long authorVersions;
+    long approvedBookings;
+    long startedBookings;
+
+    public ItemVersion(Long version, Long ownerId, Long comments, LocalDateTime lastCommented, Long authorVersions,
+                       Long approvedBookings, Long startedBookings) {
+        this.version = version;
+        this.ownerId = ownerId;
+        this.comments = comments == null ? 0 : comments;
+        this.lastCommented = lastCommented;
+        this.authorVersions = authorVersions == null ? 0 : authorVersions;
+        this.approvedBookings = approvedBookings == null ? 0 : approvedBookings;
+        this.startedBookings = startedBookings == null ? 0 : startedBookings;
+    }
+
+    public String toETag(Long userId) {
+        String eTag = String.format("%d.%d.%s.%d", version, comments, lastCommented, authorVersions);
+        if (!ownerId.equals(userId)) {
+            return eTag;
+        }
+        return String.format("%s.%d.%d", eTag, approvedBookings, startedBookings);
+    }
+}
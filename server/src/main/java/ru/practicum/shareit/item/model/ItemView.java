@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import ru.practicum.shareit.booking.model.BookingSlot;
+
+import java.util.List;
+
+/*
+ * An item as the read endpoints show it. The columns come from one query; the bookings and comments are
+ * attached afterwards by batch queries over the whole page.
+ */
+@Getter
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ItemView {
+    Long id;
+    String name;
+    String description;
+    Boolean available;
+    Long requestId;
+    @NonFinal
+    @Setter
+    BookingSlot lastBooking;
+    @NonFinal
+    @Setter
+    BookingSlot nextBooking;
+    @NonFinal
+    @Setter
+    List<CommentView> comments;
+    @NonFinal
+    @Setter
+    Long commentCount;
+
+    public ItemView(Long id, String name, String description, Boolean available, Long requestId) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.requestId = requestId;
+    }
+
+    public static ItemView of(Item item) {
+        return new ItemView(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getRequester());
+    }
+}
@@ -1,13 +1,32 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.CommentPreview;
+import ru.practicum.shareit.item.model.CommentView;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    String COMMENT_VIEW = "select new ru.practicum.shareit.item.model.CommentView(c.id, c.text, c.item.id, a.name, " +
+            "c.created) from Comment c join c.author a where c.item.id = :itemId ";
+    String NEWEST_FIRST = "order by c.created desc, c.id desc";
 
-    Set<Comment> findByItemIn(List<Item> items);
+    /*
+     * Newest comments of each item, at most limit per item, together with the total number of comments of the item.
+     */
+    @Query(name = "Comment.findNewestByItemIdIn", nativeQuery = true)
+    List<CommentPreview> findNewestByItemIdIn(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @Query(COMMENT_VIEW + NEWEST_FIRST)
+    List<CommentView> findAllByItemId(@Param("itemId") Long itemId, Pageable pageable);
+
+    @Query(COMMENT_VIEW + "and (c.created < :created or (c.created = :created and c.id < :id)) " + NEWEST_FIRST)
+    List<CommentView> findAllByItemIdAfter(@Param("itemId") Long itemId, @Param("created") LocalDateTime created,
+                                           @Param("id") Long id, Pageable pageable);
 }
@@ -2,23 +2,61 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemVersion;
+import ru.practicum.shareit.item.model.ItemView;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerIdOrderById(Long ownerId, Pageable pageable);
+    String ITEM_VIEW = "select new ru.practicum.shareit.item.model.ItemView(i.id, i.name, i.description, " +
+            "i.available, i.requester) from Item i ";
+    String APPROVED_OF_ITEM = "from Booking b where b.item.id = i.id " +
+            "and b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED";
+
+    @Query(ITEM_VIEW + "where i.owner.id = :ownerId order by i.id")
+    List<ItemView> findAllByOwner(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Query(ITEM_VIEW + "where i.owner.id = :ownerId and i.id > :id order by i.id")
+    List<ItemView> findAllByOwnerAfter(@Param("ownerId") Long ownerId, @Param("id") Long id, Pageable pageable);
+
+    @Query("select i from Item i where i.id > :id order by i.id")
+    List<Item> findAllAfter(@Param("id") Long id, Pageable pageable);
 
     @Query(" select i from Item i " +
-            "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-            " or upper(i.description) like upper(concat('%', ?1, '%')) " +
-            " and i.available = true")
+            "where (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            " or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            " and i.available = true " +
+            "order by i.id")
     List<Item> search(String text, Pageable pageable);
 
-    Set<Item> findByRequesterIn(Collection<Long> requester);
+    @Query("select new ru.practicum.shareit.item.model.ItemVersion(i.version, i.owner.id, " +
+            "(select count(c) from Comment c where c.item.id = i.id), " +
+            "(select max(c.created) from Comment c where c.item.id = i.id), " +
+            "(select sum(a.version) from Comment c join c.author a where c.item.id = i.id), " +
+            "(select count(b) " + APPROVED_OF_ITEM + "), " +
+            "(select count(b) " + APPROVED_OF_ITEM + " and b.start <= :now)) " +
+            "from Item i where i.id = :id")
+    Optional<ItemVersion> findVersionById(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("select i.id from Item i where i.owner.id = :userId " +
+            "or i.requester in (select r.id from ItemRequest r where r.requestor.id = :userId)")
+    List<Long> findIdsByOwnerOrRequestor(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("update Item i set i.version = i.version + 1 " +
+            "where i.id in (select c.item.id from Comment c where c.author.id = :userId) " +
+            "or i.id in (select b.item.id from Booking b where b.booker.id = :userId)")
+    int raiseVersionOfAllCommentedOrBookedBy(@Param("userId") Long userId);
+
+    @Query(ITEM_VIEW + "where i.requester in :requestIds")
+    List<ItemView> findAllByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
 }
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "database")
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class DatabaseItemSearchEngine implements ItemSearchEngine {
+    ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        return itemRepository.search(text, PageRequest.of(from / size, size));
+    }
+
+    @Override
+    public void index(Item item) {
+    }
+
+    @Override
+    public void removeAll(Collection<Long> ids) {
+    }
+
+    @Override
+    public void rebuild() {
+    }
+}
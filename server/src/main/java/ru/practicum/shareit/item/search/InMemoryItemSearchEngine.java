@@ -0,0 +1,253 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toMap;
+
+/*
+ * Index of the available items by every substring of up to three characters, kept in memory and updated after each
+ * commit. A query of up to three characters is answered by its own posting list alone; a longer one intersects the
+ * lists of its trigrams and checks the text of what is left. It is built before the web server starts taking
+ * requests. Changes committed while a rebuild scans the items are kept and applied again on
+ * top of the scanned snapshot, so none of them is lost to the swap.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class InMemoryItemSearchEngine implements ItemSearchEngine, SmartInitializingSingleton {
+    static int GRAM_LENGTH = 3;
+    static int REBUILD_BATCH_SIZE = 1000;
+    ItemRepository itemRepository;
+    ReadWriteLock lock = new ReentrantReadWriteLock();
+    NavigableMap<Long, Document> documents = new TreeMap<>();
+    Map<String, SortedIds> postings = new HashMap<>();
+    List<Runnable> changesDuringRebuild = new ArrayList<>();
+    @NonFinal
+    boolean rebuilding;
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        String query = normalize(text);
+        if (query.isBlank()) {
+            return List.of();
+        }
+        List<Long> ids = findIds(query, (from / size) * size, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(toMap(Item::getId, Function.identity()));
+        List<Item> result = new ArrayList<>(ids.size());
+        ids.stream().map(items::get).filter(Objects::nonNull).forEach(result::add);
+        return result;
+    }
+
+    @Override
+    public void index(Item item) {
+        Long id = item.getId();
+        Document document = Boolean.TRUE.equals(item.getAvailable()) ? toDocument(item) : null;
+        AfterCommit.run(() -> apply(() -> {
+            remove(id);
+            if (document != null) {
+                add(id, document);
+            }
+        }));
+    }
+
+    @Override
+    public void removeAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> removed = List.copyOf(ids);
+        AfterCommit.run(() -> apply(() -> removed.forEach(this::remove)));
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    @Override
+    public void rebuild() {
+        withWriteLock(() -> rebuilding = true);
+        NavigableMap<Long, Document> loaded = null;
+        try {
+            loaded = scan();
+        } finally {
+            NavigableMap<Long, Document> snapshot = loaded;
+            withWriteLock(() -> {
+                if (snapshot != null) {
+                    documents.clear();
+                    postings.clear();
+                    snapshot.forEach(this::add);
+                    changesDuringRebuild.forEach(Runnable::run);
+                    postings.values().forEach(SortedIds::trim);
+                }
+                changesDuringRebuild.clear();
+                rebuilding = false;
+            });
+        }
+        log.info("Item search index rebuilt: {} documents, {} grams.", loaded.size(), postings.size());
+    }
+
+    private NavigableMap<Long, Document> scan() {
+        NavigableMap<Long, Document> loaded = new TreeMap<>();
+        List<Item> batch;
+        Long after = 0L;
+        do {
+            batch = itemRepository.findAllAfter(after, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Item item : batch) {
+                if (Boolean.TRUE.equals(item.getAvailable())) {
+                    loaded.put(item.getId(), toDocument(item));
+                }
+                after = item.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        return loaded;
+    }
+
+    private void apply(Runnable change) {
+        withWriteLock(() -> {
+            change.run();
+            if (rebuilding) {
+                changesDuringRebuild.add(change);
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Long> findIds(String query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<SortedIds> lists = postingsOf(query);
+            if (lists.isEmpty()) {
+                return List.of();
+            }
+            boolean exact = query.length() <= GRAM_LENGTH;
+            SortedIds rarest = lists.get(0);
+            List<SortedIds> others = lists.subList(1, lists.size());
+            List<Long> ids = new ArrayList<>(limit);
+            int skipped = 0;
+            for (int i = 0; i < rarest.size() && ids.size() < limit; i++) {
+                long id = rarest.get(i);
+                if (!containedInAll(others, id) || !exact && !documents.get(id).matches(query)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                ids.add(id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* Posting lists of the query's grams, rarest first, or none if one of the grams is not indexed at all. */
+    private List<SortedIds> postingsOf(String query) {
+        Set<String> grams = query.length() <= GRAM_LENGTH ? Set.of(query) : grams(query, GRAM_LENGTH);
+        List<SortedIds> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            SortedIds list = postings.get(gram);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(SortedIds::size));
+        return lists;
+    }
+
+    private static boolean containedInAll(List<SortedIds> lists, long id) {
+        for (SortedIds list : lists) {
+            if (!list.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(Long id, Document document) {
+        documents.put(id, document);
+        document.grams().forEach(gram -> postings.computeIfAbsent(gram, key -> new SortedIds()).add(id));
+    }
+
+    private void remove(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        document.grams().forEach(gram -> {
+            SortedIds list = postings.get(gram);
+            list.remove(id);
+            if (list.isEmpty()) {
+                postings.remove(gram);
+            }
+        });
+    }
+
+    private static Document toDocument(Item item) {
+        return new Document(normalize(item.getName()), normalize(item.getDescription()));
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text, int length) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + length <= text.length(); i++) {
+            grams.add(text.substring(i, i + length));
+        }
+        return grams;
+    }
+
+    @Value
+    static class Document {
+        String name;
+        String description;
+
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            for (int length = 1; length <= GRAM_LENGTH; length++) {
+                grams.addAll(InMemoryItemSearchEngine.grams(name, length));
+                grams.addAll(InMemoryItemSearchEngine.grams(description, length));
+            }
+            return grams;
+        }
+    }
+}
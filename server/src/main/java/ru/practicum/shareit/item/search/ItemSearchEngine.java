@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemSearchEngine {
+    List<Item> search(String text, int from, int size);
+
+    void index(Item item);
+
+    void removeAll(Collection<Long> ids);
+
+    void rebuild();
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+/*
+ * A posting list: ids kept sorted in a primitive array, eight bytes an id. Items are indexed mostly in id order,
+ * so adding one is usually an append.
+ */
+final class SortedIds {
+    private static final int INITIAL_CAPACITY = 4;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int size;
+
+    void add(long id) {
+        if (size > 0 && ids[size - 1] < id) {
+            grow();
+            ids[size++] = id;
+            return;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        grow();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /* Drops the spare capacity left by growing, once a rebuild has added everything. */
+    void trim() {
+        if (ids.length > size) {
+            ids = Arrays.copyOf(ids, Math.max(size, 1));
+        }
+    }
+
+    private void grow() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.dto.ItemImportDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ItemImportService {
+    ItemImportDto importItems(Long userId, InputStream body) throws IOException;
+}
@@ -0,0 +1,177 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.json.JsonRecordReader;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toSet;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ItemImportServiceImpl implements ItemImportService {
+    static int CHUNK_SIZE = 50;
+    static int NAME_LENGTH = 50;
+    static int DESCRIPTION_LENGTH = 1000;
+
+    ObjectMapper objectMapper;
+    ItemRepository itemRepository;
+    UserRepository userRepository;
+    UserCache userCache;
+    ItemRequestRepository itemRequestRepository;
+    ItemSearchEngine itemSearchEngine;
+    TransactionTemplate transactionTemplate;
+
+    @Override
+    public ItemImportDto importItems(Long userId, InputStream body) throws IOException {
+        if (userCache.find(userId).isEmpty()) {
+            throw new NotFoundException(String.format("User with %d id not found.", userId));
+        }
+        Set<Long> knownRequests = new HashSet<>();
+        Set<Long> missingRequests = new HashSet<>();
+        List<ItemImportDto.Failure> failures = new ArrayList<>();
+        Map<Integer, Item> chunk = new LinkedHashMap<>();
+        int imported = 0;
+        int index = 0;
+        try (JsonRecordReader reader = JsonRecordReader.open(objectMapper, body)) {
+            for (JsonNode node = reader.next(); node != null; index++, node = reader.next()) {
+                Item item;
+                try {
+                    item = ItemMapper.toItem(objectMapper.treeToValue(node, ItemDto.class));
+                } catch (JsonProcessingException e) {
+                    failures.add(new ItemImportDto.Failure(index, "Malformed item: " + e.getOriginalMessage()));
+                    continue;
+                }
+                String error = validate(item);
+                if (error != null) {
+                    failures.add(new ItemImportDto.Failure(index, error));
+                    continue;
+                }
+                item.setId(null);
+                chunk.put(index, item);
+                if (chunk.size() == CHUNK_SIZE) {
+                    imported += save(userId, chunk, knownRequests, missingRequests, failures);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            failures.add(new ItemImportDto.Failure(index, "Malformed JSON: " + e.getOriginalMessage()));
+        }
+        imported += save(userId, chunk, knownRequests, missingRequests, failures);
+        failures.sort((first, second) -> Integer.compare(first.getIndex(), second.getIndex()));
+        return new ItemImportDto(imported, failures);
+    }
+
+    private int save(Long userId, Map<Integer, Item> chunk, Set<Long> knownRequests, Set<Long> missingRequests,
+                     List<ItemImportDto.Failure> failures) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        resolveRequests(chunk.values(), knownRequests, missingRequests);
+        Map<Integer, Item> items = new LinkedHashMap<>();
+        chunk.forEach((index, item) -> {
+            if (item.getRequester() != null && missingRequests.contains(item.getRequester())) {
+                failures.add(new ItemImportDto.Failure(index,
+                        String.format("Request with %d id not found.", item.getRequester())));
+            } else {
+                items.put(index, item);
+            }
+        });
+        chunk.clear();
+        try {
+            persist(userId, items.values());
+            return items.size();
+        } catch (DataAccessException | TransactionException e) {
+            return saveOneByOne(userId, items, failures);
+        }
+    }
+
+    /* A rejected row rolls back its whole chunk, so the chunk is retried row by row to save the rest. */
+    private int saveOneByOne(Long userId, Map<Integer, Item> items, List<ItemImportDto.Failure> failures) {
+        int saved = 0;
+        for (Map.Entry<Integer, Item> entry : items.entrySet()) {
+            Item item = entry.getValue();
+            item.setId(null);
+            item.setVersion(null);
+            try {
+                persist(userId, List.of(item));
+                saved++;
+            } catch (DataAccessException | TransactionException e) {
+                failures.add(new ItemImportDto.Failure(entry.getKey(), reason(e)));
+            }
+        }
+        return saved;
+    }
+
+    private void persist(Long userId, Collection<Item> items) {
+        transactionTemplate.executeWithoutResult(status -> {
+            User owner = userRepository.getReferenceById(userId);
+            items.forEach(item -> item.setOwner(owner));
+            itemRepository.saveAll(items).forEach(itemSearchEngine::index);
+        });
+    }
+
+    private static String reason(NestedRuntimeException e) {
+        return "Item could not be saved: " + e.getMostSpecificCause().getMessage();
+    }
+
+    private void resolveRequests(Iterable<Item> items, Set<Long> knownRequests, Set<Long> missingRequests) {
+        Set<Long> unresolved = new HashSet<>();
+        items.forEach(item -> unresolved.add(item.getRequester()));
+        unresolved.removeIf(id -> id == null || knownRequests.contains(id) || missingRequests.contains(id));
+        if (unresolved.isEmpty()) {
+            return;
+        }
+        Set<Long> found = itemRequestRepository.findIdsByIdIn(unresolved);
+        knownRequests.addAll(found);
+        missingRequests.addAll(unresolved.stream().filter(id -> !found.contains(id)).collect(toSet()));
+    }
+
+    private static String validate(Item item) {
+        if (item.getName() == null || item.getName().isBlank()) {
+            return "Name must not be blank.";
+        }
+        if (item.getName().length() > NAME_LENGTH) {
+            return String.format("Name must not be longer than %d characters.", NAME_LENGTH);
+        }
+        if (item.getDescription() == null || item.getDescription().isBlank()) {
+            return "Description must not be blank.";
+        }
+        if (item.getDescription().length() > DESCRIPTION_LENGTH) {
+            return String.format("Description must not be longer than %d characters.", DESCRIPTION_LENGTH);
+        }
+        if (item.getAvailable() == null) {
+            return "Available must not be null.";
+        }
+        return null;
+    }
+}
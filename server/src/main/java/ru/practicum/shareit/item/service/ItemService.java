@@ -1,8 +1,13 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.booking.availability.TimeWindow;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -10,11 +15,19 @@ public interface ItemService {
 
     Item update(Item item, Long id, Long userId);
 
-    Item getById(Long id, Long userId);
+    ItemView getById(Long id, Long userId);
 
-    List<Item> getAll(Long userId, int from, int size);
+    String getETag(Long id, Long userId);
+
+    List<ItemView> getAll(Long userId, int from, int size);
+
+    List<ItemView> getAll(Long userId, PageCursor after, int size);
 
     List<Item> search(String text, int from, int size);
 
+    List<TimeWindow> getFreeWindows(Long id, Long userId, LocalDateTime start, LocalDateTime end);
+
     Comment commented(Comment comment, Long itemId, Long authorId);
+
+    List<CommentView> getComments(Long itemId, Long userId, PageCursor after, int size);
 }
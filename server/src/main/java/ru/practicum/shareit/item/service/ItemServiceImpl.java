@@ -4,28 +4,38 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.availability.TimeWindow;
+import ru.practicum.shareit.booking.model.BookingSlot;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentPreview;
+import ru.practicum.shareit.item.model.CommentView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
-import static java.util.stream.Collectors.*;
+import static java.util.stream.Collectors.toList;
 
 @Transactional(readOnly = true)
 @Service
@@ -33,22 +43,27 @@ import static java.util.stream.Collectors.*;
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class ItemServiceImpl implements ItemService {
 
+    static int COMMENTS_PREVIEW_SIZE = 10;
+
     ItemRepository itemRepository;
-    UserRepository userRepository;
+    UserCache userCache;
     BookingRepository bookingRepository;
     CommentRepository commentRepository;
     ItemRequestRepository itemRequestRepository;
+    ItemSearchEngine itemSearchEngine;
+    BookingAvailabilityIndex bookingAvailabilityIndex;
 
     @Transactional
     @Override
     public Item create(Item item, Long userId) {
         User user = findUserById(userId);
         item.setOwner(user);
-        if (item.getRequester() != null) {
-            itemRequestRepository.findById(item.getRequester())
-                    .orElseThrow(() -> new NotFoundException(String.format("Request with %d id not found.", item.getRequester())));
+        if (item.getRequester() != null && !itemRequestRepository.existsById(item.getRequester())) {
+            throw new NotFoundException(String.format("Request with %d id not found.", item.getRequester()));
         }
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        itemSearchEngine.index(savedItem);
+        return savedItem;
     }
 
     @Transactional
@@ -60,82 +75,138 @@ public class ItemServiceImpl implements ItemService {
             throw new NotFoundException("Owners don't match.");
         }
         updateFields(item, itemToUpdate);
+        itemSearchEngine.index(itemToUpdate);
         return itemToUpdate;
     }
 
     @Override
-    public Item getById(Long id, Long userId) {
+    public ItemView getById(Long id, Long userId) {
         findUserById(userId);
         Item item = findById(id);
-        loadComments(List.of(item));
+        ItemView view = ItemView.of(item);
+        loadComments(List.of(view));
         if (item.getOwner().getId().equals(userId)) {
-            loadLastBooking(List.of(item));
-            loadNextBooking(List.of(item));
+            loadBookings(List.of(view));
         }
-        return item;
+        return view;
+    }
+
+    @Override
+    public String getETag(Long id, Long userId) {
+        findUserById(userId);
+        return itemRepository.findVersionById(id, LocalDateTime.now())
+                .orElseThrow(() -> new NotFoundException(String.format("Item with %d id not found.", id)))
+                .toETag(userId);
+    }
+
+    @Override
+    public List<ItemView> getAll(Long userId, int from, int size) {
+        findUserById(userId);
+        List<ItemView> items = itemRepository.findAllByOwner(userId, OffsetPageRequest.of(from, size));
+        loadComments(items);
+        loadBookings(items);
+        return items;
     }
 
     @Override
-    public List<Item> getAll(Long userId, int from, int size) {
+    public List<ItemView> getAll(Long userId, PageCursor after, int size) {
+        if (after == null) {
+            return getAll(userId, 0, size);
+        }
         findUserById(userId);
-        List<Item> items = itemRepository.findAllByOwnerIdOrderById(userId, PageRequest.of(from / size, size));
+        List<ItemView> items = itemRepository.findAllByOwnerAfter(userId, after.getId(), PageRequest.of(0, size));
         loadComments(items);
-        loadLastBooking(items);
-        loadNextBooking(items);
+        loadBookings(items);
         return items;
     }
 
     @Override
     public List<Item> search(String text, int from, int size) {
-        return itemRepository.search(text, PageRequest.of(from / size, size));
+        return itemSearchEngine.search(text, from, size);
+    }
+
+    @Override
+    public List<TimeWindow> getFreeWindows(Long id, Long userId, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            throw new ValidationException("Start must be before end.");
+        }
+        findUserById(userId);
+        if (!itemRepository.existsById(id)) {
+            throw new NotFoundException(String.format("Item with %d id not found.", id));
+        }
+        return bookingAvailabilityIndex.freeWindows(id, start, end);
     }
 
     @Transactional
     @Override
     public Comment commented(Comment comment, Long itemId, Long authorId) {
         User user = findUserById(authorId);
-        Item item = findById(itemId);
-        if (bookingRepository.findAllByBookerAndItemAndStatusEqualsAndEndBefore(user, item, BookingStatus.APPROVED,
-                LocalDateTime.now()).isEmpty()) {
+        if (!bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(authorId, itemId, BookingStatus.APPROVED,
+                LocalDateTime.now())) {
+            if (!itemRepository.existsById(itemId)) {
+                throw new NotFoundException(String.format("Item with %d id not found.", itemId));
+            }
             throw new ValidationException("Refused access to add comment.");
         }
-        comment.setItem(item);
+        comment.setItem(itemRepository.getReferenceById(itemId));
         comment.setAuthor(user);
         return commentRepository.save(comment);
     }
 
-    private void loadComments(List<Item> items) {
-        Map<Item, Set<Comment>> comments = commentRepository.findByItemIn(items)
-                .stream()
-                .collect(groupingBy(Comment::getItem, toSet()));
-
-        items.forEach(item -> item.setComments(comments.getOrDefault(item, Collections.emptySet())));
+    @Override
+    public List<CommentView> getComments(Long itemId, Long userId, PageCursor after, int size) {
+        findUserById(userId);
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(String.format("Item with %d id not found.", itemId));
+        }
+        Pageable pageable = PageRequest.of(0, size);
+        if (after == null) {
+            return commentRepository.findAllByItemId(itemId, pageable);
+        }
+        return commentRepository.findAllByItemIdAfter(itemId, after.getTime(), after.getId(), pageable);
     }
 
-    private void loadLastBooking(List<Item> items) {
-        Map<Item, List<Booking>> bookingsLast =
-                bookingRepository.findByItemInAndStatusEqualsAndStartLessThanEqualOrderByStartDesc(items, BookingStatus.APPROVED,
-                                LocalDateTime.now())
-                        .stream()
-                        .collect(groupingBy(Booking::getItem, toList()));
+    private void loadComments(List<ItemView> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Map<Long, List<CommentView>> comments = new HashMap<>();
+        Map<Long, Long> counts = new HashMap<>();
+        for (CommentPreview preview : commentRepository.findNewestByItemIdIn(ids(items), COMMENTS_PREVIEW_SIZE)) {
+            Long itemId = preview.getComment().getItemId();
+            comments.computeIfAbsent(itemId, id -> new ArrayList<>()).add(preview.getComment());
+            counts.put(itemId, preview.getTotal());
+        }
 
-        items.forEach(item -> item.setLastBooking(bookingsLast.getOrDefault(item, List.of())
-                .stream().findFirst().orElse(null)));
+        items.forEach(item -> {
+            item.setComments(comments.getOrDefault(item.getId(), Collections.emptyList()));
+            item.setCommentCount(counts.getOrDefault(item.getId(), 0L));
+        });
     }
 
-    private void loadNextBooking(List<Item> items) {
-        Map<Item, List<Booking>> bookingsNext =
-                bookingRepository.findByItemInAndStatusEqualsAndStartAfterOrderByStart(items, BookingStatus.APPROVED,
-                                LocalDateTime.now())
-                        .stream()
-                        .collect(groupingBy(Booking::getItem, toList()));
+    private void loadBookings(List<ItemView> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingSlot> bookingsLast = new HashMap<>();
+        Map<Long, BookingSlot> bookingsNext = new HashMap<>();
+        bookingRepository.findLastAndNextByItemIdIn(ids(items), BookingStatus.APPROVED.name(), now)
+                .forEach(booking -> (booking.getStart().isAfter(now) ? bookingsNext : bookingsLast)
+                        .put(booking.getItemId(), booking));
+
+        items.forEach(item -> {
+            item.setLastBooking(bookingsLast.get(item.getId()));
+            item.setNextBooking(bookingsNext.get(item.getId()));
+        });
+    }
 
-        items.forEach(item -> item.setNextBooking(bookingsNext.getOrDefault(item, List.of())
-                .stream().findFirst().orElse(null)));
+    private static List<Long> ids(List<ItemView> items) {
+        return items.stream().map(ItemView::getId).collect(toList());
     }
 
     private User findUserById(Long userId) {
-        return userRepository.findById(userId)
+        return userCache.find(userId)
                 .orElseThrow(() -> new NotFoundException(String.format("User with %d id not found.", userId)));
     }
 
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class PageCursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static String SEPARATOR = "|";
+    LocalDateTime time;
+    Long id;
+
+    public static PageCursor of(LocalDateTime time, Long id) {
+        return new PageCursor(time, id);
+    }
+
+    public static PageCursor of(Long id) {
+        return new PageCursor(null, id);
+    }
+
+    private static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return of(Long.valueOf(value));
+            }
+            return of(LocalDateTime.parse(value.substring(0, separator)), Long.valueOf(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException(String.format("Invalid cursor %s.", token));
+        }
+    }
+
+    /* Decodes a cursor of a list ordered by time and id, such as bookings, comments or the request feed. */
+    public static PageCursor decodeTimeKeyed(String token) {
+        return decode(token, true);
+    }
+
+    /* Decodes a cursor of a list ordered by id alone, such as the owner's items. */
+    public static PageCursor decodeIdKeyed(String token) {
+        return decode(token, false);
+    }
+
+    private static PageCursor decode(String token, boolean timeKeyed) {
+        PageCursor cursor = decode(token);
+        if (cursor != null && (cursor.getTime() != null) != timeKeyed) {
+            throw new ValidationException(String.format("Invalid cursor %s.", token));
+        }
+        return cursor;
+    }
+
+    public static <T> HttpHeaders nextCursorHeaders(List<T> content, int size, Function<T, PageCursor> cursorOf) {
+        HttpHeaders headers = new HttpHeaders();
+        if (content.size() == size) {
+            headers.set(NEXT_CURSOR_HEADER, cursorOf.apply(content.get(content.size() - 1)).encode());
+        }
+        return headers;
+    }
+
+    public String encode() {
+        String value = time == null ? String.valueOf(id) : time + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -3,10 +3,14 @@ package ru.practicum.shareit.request;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequestView;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
@@ -31,15 +35,26 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                       @RequestParam(value = "from", defaultValue = "0") int from,
-                                       @RequestParam(value = "size", defaultValue = "10") int size) {
-        return ItemRequestMapper.toListItemRequestDtoWithItems(itemRequestService.getAll(userId, from, size));
+    public ResponseEntity<List<ItemRequestDto>> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       @RequestParam(value = "from", defaultValue = "0") int from,
+                                                       @RequestParam(value = "size", defaultValue = "10") int size,
+                                                       @RequestParam(value = "cursor", required = false) String cursor) {
+        List<ItemRequestView> requests = cursor == null
+                ? itemRequestService.getAll(userId, from, size)
+                : itemRequestService.getAll(userId, PageCursor.decodeTimeKeyed(cursor), size);
+        return ResponseEntity.ok()
+                .headers(PageCursor.nextCursorHeaders(requests, size,
+                        request -> PageCursor.of(request.getCreated(), request.getId())))
+                .body(ItemRequestMapper.toListItemRequestDtoWithItems(requests));
     }
 
     @GetMapping("{requestId}")
     public ItemRequestDto getById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                  @PathVariable("requestId") Long id) {
+                                  @PathVariable("requestId") Long id,
+                                  WebRequest request) {
+        if (request.checkNotModified(itemRequestService.getETag(userId, id))) {
+            return null;
+        }
         return ItemRequestMapper.toItemRequestDtoWithItems(itemRequestService.getById(userId, id));
     }
 }
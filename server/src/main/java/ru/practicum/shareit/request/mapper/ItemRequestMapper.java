@@ -6,6 +6,7 @@ import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestView;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -26,7 +27,7 @@ public class ItemRequestMapper {
                 .build();
     }
 
-    public static ItemRequestDto toItemRequestDtoWithItems(ItemRequest itemRequest) {
+    public static ItemRequestDto toItemRequestDtoWithItems(ItemRequestView itemRequest) {
         return ItemRequestDto.builder()
                 .id(itemRequest.getId())
                 .description(itemRequest.getDescription())
@@ -35,7 +36,7 @@ public class ItemRequestMapper {
                 .build();
     }
 
-    public static List<ItemRequestDto> toListItemRequestDtoWithItems(List<ItemRequest> requests) {
+    public static List<ItemRequestDto> toListItemRequestDtoWithItems(List<ItemRequestView> requests) {
         return requests.stream().map(ItemRequestMapper::toItemRequestDtoWithItems).collect(Collectors.toList());
     }
 }
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/*
+ * Items answering a request leave it only when their owner is deleted, and the user service raises the request
+ * version first. Every item update raises the item version, so the count and the sum of item versions change
+ * whenever the list shown with the request does.
+ */
+@Getter
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ItemRequestVersion {
+    long version;
+    long items;
+    long itemVersions;
+
+    public ItemRequestVersion(Long version, Long items, Long itemVersions) {
+        this.version = version;
+        this.items = items == null ? 0 : items;
+        this.itemVersions = itemVersions == null ? 0 : itemVersions;
+    }
+
+    public String toETag() {
+        return String.format("%d.%d.%d", version, items, itemVersions);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import ru.practicum.shareit.item.model.ItemView;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/* A request as the read endpoints show it, with the items offered for it attached by one batch query. */
+@Getter
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ItemRequestView {
+    Long id;
+    String description;
+    LocalDateTime created;
+    @NonFinal
+    @Setter
+    Set<ItemView> items;
+
+    public ItemRequestView(Long id, String description, LocalDateTime created) {
+        this.id = id;
+        this.description = description;
+        this.created = created;
+    }
+
+    public static ItemRequestView of(ItemRequest itemRequest) {
+        return new ItemRequestView(itemRequest.getId(), itemRequest.getDescription(), itemRequest.getCreated());
+    }
+}
@@ -2,14 +2,49 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestVersion;
+import ru.practicum.shareit.request.model.ItemRequestView;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    List<ItemRequest> findAllByRequestorIdOrderByCreatedAsc(Long userId);
+    String REQUEST_VIEW = "select new ru.practicum.shareit.request.model.ItemRequestView(r.id, r.description, " +
+            "r.created) from ItemRequest r ";
 
-    List<ItemRequest> findAllByRequestorIdIsNotOrderByCreated(Long userId, Pageable pageable);
+    @Query(REQUEST_VIEW + "where r.requestor.id = :userId order by r.created")
+    List<ItemRequestView> findAllByRequestorIdOrderByCreatedAsc(@Param("userId") Long userId);
+
+    @Query(REQUEST_VIEW + "where r.requestor.id <> :userId order by r.created, r.id")
+    List<ItemRequestView> findAllByRequestorIdIsNot(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(REQUEST_VIEW + "where r.requestor.id <> :userId " +
+            "and r.created >= :created and (r.created > :created or r.id > :id) " +
+            "order by r.created, r.id")
+    List<ItemRequestView> findAllByRequestorIdIsNotAfter(@Param("userId") Long userId,
+                                                         @Param("created") LocalDateTime created,
+                                                         @Param("id") Long id, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.request.model.ItemRequestVersion(r.version, " +
+            "(select count(i) from Item i where i.requester = r.id), " +
+            "(select sum(i.version) from Item i where i.requester = r.id)) " +
+            "from ItemRequest r where r.id = :id")
+    Optional<ItemRequestVersion> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update ItemRequest r set r.version = r.version + 1 " +
+            "where r.id in (select i.requester from Item i where i.owner.id = :ownerId)")
+    int raiseVersionOfAllAnsweredByOwner(@Param("ownerId") Long ownerId);
+
+    @Query("select r.id from ItemRequest r where r.id in :ids")
+    Set<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,17 +1,23 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestView;
 
 import java.util.List;
 
 public interface ItemRequestService {
     ItemRequest create(Long userId, ItemRequest itemRequest);
 
-    List<ItemRequest> getAllByUser(Long userId);
+    List<ItemRequestView> getAllByUser(Long userId);
 
-    List<ItemRequest> getAll(Long userId, int from, int size);
+    List<ItemRequestView> getAll(Long userId, int from, int size);
 
-    ItemRequest getById(Long userId, Long id);
+    List<ItemRequestView> getAll(Long userId, PageCursor after, int size);
+
+    ItemRequestView getById(Long userId, Long id);
+
+    String getETag(Long userId, Long id);
 }
 
 
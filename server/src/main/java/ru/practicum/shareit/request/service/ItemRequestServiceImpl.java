@@ -7,12 +7,15 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestView;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.Collections;
 import java.util.List;
@@ -28,7 +31,7 @@ import static java.util.stream.Collectors.toSet;
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class ItemRequestServiceImpl implements ItemRequestService {
     ItemRequestRepository itemRequestRepository;
-    UserRepository userRepository;
+    UserCache userCache;
     ItemRepository itemRepository;
 
     @Transactional
@@ -40,43 +43,67 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
-    public List<ItemRequest> getAllByUser(Long userId) {
+    public List<ItemRequestView> getAllByUser(Long userId) {
         findUserById(userId);
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(userId);
+        List<ItemRequestView> requests = itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(userId);
         loadItems(requests);
         return requests;
     }
 
     @Override
-    public List<ItemRequest> getAll(Long userId, int from, int size) {
+    public List<ItemRequestView> getAll(Long userId, int from, int size) {
         findUserById(userId);
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequestorIdIsNotOrderByCreated(userId,
-                PageRequest.of(from / size, size));
+        List<ItemRequestView> requests = itemRequestRepository.findAllByRequestorIdIsNot(userId,
+                OffsetPageRequest.of(from, size));
         loadItems(requests);
         return requests;
     }
 
     @Override
-    public ItemRequest getById(Long userId, Long id) {
+    public List<ItemRequestView> getAll(Long userId, PageCursor after, int size) {
+        if (after == null) {
+            return getAll(userId, 0, size);
+        }
         findUserById(userId);
-        ItemRequest itemRequest = itemRequestRepository.findById(id)
+        List<ItemRequestView> requests = itemRequestRepository.findAllByRequestorIdIsNotAfter(userId, after.getTime(),
+                after.getId(), PageRequest.of(0, size));
+        loadItems(requests);
+        return requests;
+    }
+
+    @Override
+    public ItemRequestView getById(Long userId, Long id) {
+        findUserById(userId);
+        ItemRequestView itemRequest = itemRequestRepository.findById(id)
+                .map(ItemRequestView::of)
                 .orElseThrow(() -> new NotFoundException(String.format("Request with %d id not found.", id)));
         loadItems(List.of(itemRequest));
         return itemRequest;
     }
 
-    private void loadItems(List<ItemRequest> requests) {
-        Map<Long, List<ItemRequest>> requestById = requests.stream().collect(groupingBy(ItemRequest::getId));
+    @Override
+    public String getETag(Long userId, Long id) {
+        findUserById(userId);
+        return itemRequestRepository.findVersionById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Request with %d id not found.", id)))
+                .toETag();
+    }
+
+    private void loadItems(List<ItemRequestView> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        Map<Long, List<ItemRequestView>> requestById = requests.stream().collect(groupingBy(ItemRequestView::getId));
 
-        Map<Long, Set<Item>> items = itemRepository.findByRequesterIn(requestById.keySet())
+        Map<Long, Set<ItemView>> items = itemRepository.findAllByRequestIdIn(requestById.keySet())
                 .stream()
-                .collect(groupingBy(Item::getRequester, toSet()));
+                .collect(groupingBy(ItemView::getRequestId, toSet()));
 
         requests.forEach(itemRequest -> itemRequest.setItems(items.getOrDefault(itemRequest.getId(), Collections.emptySet())));
     }
 
     private User findUserById(Long userId) {
-        return userRepository.findById(userId)
+        return userCache.find(userId)
                 .orElseThrow(() -> new NotFoundException(String.format("User with %d id not found.", userId)));
     }
 }
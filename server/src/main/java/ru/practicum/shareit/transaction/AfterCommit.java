@@ -0,0 +1,37 @@
+package ru.practicum.shareit.transaction;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class AfterCommit {
+    public static void run(Runnable action) {
+        run(action, () -> {
+        });
+    }
+
+    /* Runs the action after a commit, then the completion whether the transaction committed or rolled back. */
+    public static void run(Runnable action, Runnable completion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    completion.run();
+                }
+            });
+        } else {
+            try {
+                action.run();
+            } finally {
+                completion.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.transaction.AfterCommit;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/*
+ * Detached copies of users keyed by id, used by the services to check the X-Sharer-User-Id header without a
+ * query per request. Concurrent misses on the same id share one load. Unknown ids are never cached, so a user
+ * created later is found straight away. Users are cached from the primary only, so a lagging replica is never
+ * cached.
+ */
+@Component
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class UserCache {
+    static String NAME = "users";
+    UserRepository userRepository;
+    PrimaryReads primaryReads;
+    Cache<Long, User> users;
+
+    public UserCache(UserRepository userRepository, PrimaryReads primaryReads, MeterRegistry meterRegistry,
+                     @Value("${shareit.user-cache.max-size:10000}") long maxSize,
+                     @Value("${shareit.user-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.userRepository = userRepository;
+        this.primaryReads = primaryReads;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, NAME);
+    }
+
+    public Optional<User> find(Long userId) {
+        return Optional.ofNullable(primaryReads.get(users, userId, this::load)).map(UserCache::copy);
+    }
+
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> users.invalidate(userId));
+    }
+
+    private User load(Long userId) {
+        return userRepository.findById(userId).map(UserCache::copy).orElse(null);
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .version(user.getVersion())
+                .build();
+    }
+}
@@ -5,10 +5,20 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.counter.BookingCounters;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.transaction.AfterCommit;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 
 @Transactional(readOnly = true)
@@ -17,6 +27,13 @@ import java.util.List;
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class UserServiceImpl implements UserService {
     UserRepository userRepository;
+    ItemRepository itemRepository;
+    ItemRequestRepository itemRequestRepository;
+    UserCache userCache;
+    ItemSearchEngine itemSearchEngine;
+    EntityManagerFactory entityManagerFactory;
+    BookingCounters bookingCounters;
+    BookingAvailabilityIndex bookingAvailabilityIndex;
 
     @Override
     public List<User> getAll() {
@@ -34,6 +51,7 @@ public class UserServiceImpl implements UserService {
     public User update(User user, Long id) {
         User userToUpdate = getById(id);
         updateFields(user, userToUpdate);
+        userCache.invalidate(id);
         return userToUpdate;
     }
 
@@ -45,7 +63,26 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     public void delete(Long id) {
+        /*
+         * The cascade takes the user's comments and bookings off other items and the user's items off other requests,
+         * which their conditional GET tags cannot see, so those items and requests get a new version first.
+         */
+        itemRepository.raiseVersionOfAllCommentedOrBookedBy(id);
+        itemRequestRepository.raiseVersionOfAllAnsweredByOwner(id);
+        List<Long> itemIds = itemRepository.findIdsByOwnerOrRequestor(id);
         userRepository.deleteById(id);
+        userCache.invalidate(id);
+        /*
+         * The database cascades the delete to the user's items and requests, and to items answering those requests,
+         * behind Hibernate's back, so their cached rows have to go as well.
+         */
+        AfterCommit.run(() -> {
+            entityManagerFactory.getCache().evict(Item.class);
+            entityManagerFactory.getCache().evict(ItemRequest.class);
+        });
+        bookingCounters.invalidateAll();
+        bookingAvailabilityIndex.invalidateAll();
+        itemSearchEngine.removeAll(itemIds);
     }
 
     private void updateFields(User user, User userToUpdate) {
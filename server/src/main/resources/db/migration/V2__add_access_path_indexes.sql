@@ -0,0 +1,15 @@
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (id_owner, id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments (item_id);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created);
@@ -0,0 +1,11 @@
+DROP INDEX IF EXISTS idx_bookings_booker_start;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_bookings_booker_status_start;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_bookings_item_start;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
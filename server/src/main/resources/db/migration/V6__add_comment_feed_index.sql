@@ -0,0 +1,3 @@
+DROP INDEX IF EXISTS idx_comments_item_id;
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created DESC, id DESC);
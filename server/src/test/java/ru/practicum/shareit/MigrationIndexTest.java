@@ -0,0 +1,113 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+class MigrationIndexTest {
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrations_whenApplied_thenCompositeIndexesExist() {
+        assertThat(columns("IDX_BOOKINGS_BOOKER_START")).containsExactly("BOOKER_ID", "START_DATE", "ID");
+        assertThat(columns("IDX_BOOKINGS_BOOKER_STATUS_START")).containsExactly("BOOKER_ID", "STATUS", "START_DATE", "ID");
+        assertThat(columns("IDX_BOOKINGS_ITEM_START")).containsExactly("ITEM_ID", "START_DATE", "ID");
+        assertThat(columns("IDX_BOOKINGS_ITEM_STATUS_START")).containsExactly("ITEM_ID", "STATUS", "START_DATE");
+        assertThat(columns("IDX_ITEMS_OWNER_ID")).containsExactly("ID_OWNER", "ID");
+        assertThat(columns("IDX_ITEMS_REQUEST_ID")).containsExactly("REQUEST_ID");
+        assertThat(columns("IDX_COMMENTS_ITEM_CREATED")).containsExactly("ITEM_ID", "CREATED", "ID");
+        assertThat(columns("IDX_REQUESTS_REQUESTOR_CREATED")).containsExactly("REQUESTOR_ID", "CREATED");
+        assertThat(columns("IDX_REQUESTS_CREATED_ID")).containsExactly("CREATED", "ID");
+    }
+
+    @Test
+    void findAllByBooker_whenExplained_thenUsesIndex() {
+        assertThat(plan("select * from bookings b where b.booker_id = 1 order by b.start_date desc"))
+                .doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void findAllByBookerAndStatusEquals_whenExplained_thenUsesIndex() {
+        assertThat(plan("select * from bookings b where b.booker_id = 1 and b.status = 'WAITING' " +
+                "order by b.start_date desc"))
+                .doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void findAllByItemOwnerId_whenExplained_thenUsesIndex() {
+        assertThat(plan("select b.* from bookings b join items i on b.item_id = i.id where i.id_owner = 1 " +
+                "order by b.start_date desc"))
+                .doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void findByItemInAndStatusEquals_whenExplained_thenUsesIndex() {
+        assertThat(plan("select * from bookings b where b.item_id in (1, 2) and b.status = 'APPROVED' " +
+                "and b.start_date <= current_timestamp order by b.start_date desc"))
+                .doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void findAllByOwnerIdOrderById_whenExplained_thenUsesIndex() {
+        assertThat(plan("select * from items i where i.id_owner = 1 order by i.id"))
+                .doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void findByRequesterIn_whenExplained_thenUsesIndex() {
+        assertThat(plan("select * from items i where i.request_id in (1, 2)"))
+                .doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void findByItemIn_whenExplained_thenUsesIndex() {
+        assertThat(plan("select * from comments c where c.item_id in (1, 2)"))
+                .doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void findAllByItemIdAfter_whenExplained_thenUsesIndex() {
+        assertThat(plan("select * from comments c where c.item_id = 1 and (c.created < current_timestamp " +
+                "or (c.created = current_timestamp and c.id < 10)) order by c.created desc, c.id desc"))
+                .doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void findAllByRequestorIdOrderByCreatedAsc_whenExplained_thenUsesIndex() {
+        assertThat(plan("select * from requests r where r.requestor_id = 1 order by r.created"))
+                .doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void findAllByBookerAfter_whenExplained_thenUsesIndex() {
+        assertThat(plan("select * from bookings b where b.booker_id = 1 and (b.start_date < current_timestamp " +
+                "or (b.start_date = current_timestamp and b.id < 10)) order by b.start_date desc, b.id desc"))
+                .doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void findAllByRequestorIdIsNotAfter_whenExplained_thenUsesIndex() {
+        assertThat(plan("select * from requests r where r.requestor_id <> 1 and r.created >= current_timestamp " +
+                "and (r.created > current_timestamp or r.id > 10) order by r.created, r.id"))
+                .doesNotContain("TABLESCAN");
+    }
+
+    private String plan(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class).toUpperCase();
+    }
+
+    private List<String> columns(String index) {
+        return jdbcTemplate.queryForList("select column_name from information_schema.index_columns " +
+                "where upper(index_name) = ? order by ordinal_position", String.class, index);
+    }
+}
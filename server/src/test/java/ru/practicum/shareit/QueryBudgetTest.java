@@ -0,0 +1,225 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.SqlStatementCounter")
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+    static String USER_HEADER = "X-Sharer-User-Id";
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    UserCache userCache;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    CommentRepository commentRepository;
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+    User owner;
+    User booker;
+    Item item;
+    Booking waiting;
+    ItemRequest request;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@budget.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@budget.ru").build());
+        item = itemRepository.save(Item.builder().name("drill").description("drill").available(true).owner(owner)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(Booking.builder().start(now.minusDays(2)).end(now.minusDays(1)).item(item)
+                .booker(booker).status(BookingStatus.APPROVED).build());
+        waiting = bookingRepository.save(Booking.builder().start(now.plusDays(1)).end(now.plusDays(2)).item(item)
+                .booker(booker).status(BookingStatus.WAITING).build());
+        request = itemRequestRepository.save(ItemRequest.builder().description("need a saw").requestor(booker)
+                .build());
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        userCache.find(owner.getId());
+        userCache.find(booker.getId());
+    }
+
+    @Test
+    void createItem_whenInvoked_thenStaysWithinBudget() throws Exception {
+        assertBudget(2, post("/items").header(USER_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"saw\", \"description\": \"saw\", \"available\": true, \"requestId\": "
+                        + request.getId() + "}"));
+    }
+
+    @Test
+    void updateItem_whenInvoked_thenStaysWithinBudget() throws Exception {
+        assertBudget(2, patch("/items/{id}", item.getId()).header(USER_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"hammer drill\"}"));
+    }
+
+    @Test
+    void getItem_whenOwner_thenStaysWithinBudget() throws Exception {
+        assertBudget(4, get("/items/{id}", item.getId()).header(USER_HEADER, owner.getId()));
+    }
+
+    @Test
+    void getItem_whenNotModified_thenOnlyReadsVersion() throws Exception {
+        String eTag = eTag(get("/items/{id}", item.getId()).header(USER_HEADER, owner.getId()));
+
+        assertBudget(1, get("/items/{id}", item.getId()).header(USER_HEADER, owner.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag), status().isNotModified());
+    }
+
+    @Test
+    void getItems_whenOwner_thenStaysWithinBudget() throws Exception {
+        assertBudget(3, get("/items").header(USER_HEADER, owner.getId()));
+    }
+
+    @Test
+    void comment_whenBookerFinishedBooking_thenStaysWithinBudget() throws Exception {
+        assertBudget(2, post("/items/{id}/comment", item.getId()).header(USER_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"text\": \"great drill\"}"));
+    }
+
+    @Test
+    void createBooking_whenItemFree_thenStaysWithinBudget() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(10).withNano(0);
+        assertBudget(3, post("/bookings").header(USER_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"itemId\": " + item.getId() + ", \"start\": \"" + start + "\", \"end\": \""
+                        + start.plusDays(1) + "\"}"));
+    }
+
+    @Test
+    void confirmBooking_whenWaiting_thenStaysWithinBudget() throws Exception {
+        assertBudget(3, patch("/bookings/{id}", waiting.getId()).header(USER_HEADER, owner.getId())
+                .param("approved", "true"));
+    }
+
+    @Test
+    void getBooking_whenBooker_thenStaysWithinBudget() throws Exception {
+        assertBudget(2, get("/bookings/{id}", waiting.getId()).header(USER_HEADER, booker.getId()));
+    }
+
+    @Test
+    void getBooking_whenNotModified_thenOnlyReadsVersion() throws Exception {
+        String eTag = eTag(get("/bookings/{id}", waiting.getId()).header(USER_HEADER, booker.getId()));
+
+        assertBudget(1, get("/bookings/{id}", waiting.getId()).header(USER_HEADER, booker.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag), status().isNotModified());
+    }
+
+    @Test
+    void getBookings_whenBookerOrOwner_thenStaysWithinBudget() throws Exception {
+        assertBudget(1, get("/bookings").header(USER_HEADER, booker.getId()));
+        assertBudget(1, get("/bookings/owner").header(USER_HEADER, owner.getId()));
+    }
+
+    @Test
+    void countBookings_whenCountedAgain_thenServeFromCounters() throws Exception {
+        assertBudget(2, get("/bookings/owner/counts").header(USER_HEADER, owner.getId()));
+        assertBudget(0, get("/bookings/owner/counts").header(USER_HEADER, owner.getId()));
+    }
+
+    @Test
+    void exportBookings_whenBookerOrOwner_thenStreamEveryBookingWithinBudget() throws Exception {
+        SqlStatementCounter.reset();
+        MvcResult result = mvc.perform(get("/bookings/owner/export").header(USER_HEADER, owner.getId())).andReturn();
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(2, body.lines().count());
+        assertTrue(body.startsWith("{\"id\":" + waiting.getId() + ","));
+        assertTrue(SqlStatementCounter.count() <= 1);
+    }
+
+    @Test
+    void createRequest_whenInvoked_thenStaysWithinBudget() throws Exception {
+        assertBudget(1, post("/requests").header(USER_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\": \"need a ladder\"}"));
+    }
+
+    @Test
+    void getRequests_whenInvoked_thenStaysWithinBudget() throws Exception {
+        assertBudget(2, get("/requests").header(USER_HEADER, booker.getId()));
+        assertBudget(2, get("/requests/all").header(USER_HEADER, owner.getId()));
+        assertBudget(3, get("/requests/{id}", request.getId()).header(USER_HEADER, owner.getId()));
+        /* The lists no longer load request entities, so only a read by id puts the row in the second-level cache. */
+        assertBudget(2, get("/requests/{id}", request.getId()).header(USER_HEADER, owner.getId()));
+    }
+
+    @Test
+    void getRequest_whenNotModified_thenOnlyReadsVersion() throws Exception {
+        String eTag = eTag(get("/requests/{id}", request.getId()).header(USER_HEADER, owner.getId()));
+
+        assertBudget(1, get("/requests/{id}", request.getId()).header(USER_HEADER, owner.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag), status().isNotModified());
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private void assertBudget(int budget, RequestBuilder request) throws Exception {
+        assertBudget(budget, request, status().isOk());
+    }
+
+    private void assertBudget(int budget, RequestBuilder request, ResultMatcher expected) throws Exception {
+        SqlStatementCounter.reset();
+        mvc.perform(request).andExpect(expected);
+        int statements = SqlStatementCounter.count();
+        assertTrue(statements <= budget, String.format("Expected at most %d statements but %d were executed.",
+                budget, statements));
+    }
+
+    private String eTag(RequestBuilder request) throws Exception {
+        return mvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
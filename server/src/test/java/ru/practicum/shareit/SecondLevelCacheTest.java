@@ -0,0 +1,111 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class SecondLevelCacheTest {
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+    @Autowired
+    UserService userService;
+    SessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+    }
+
+    @Test
+    void findById_whenReadTwice_thenSecondReadServedFromRegion() {
+        User user = userRepository.save(User.builder().name("cached").email("cached@cache.ru").build());
+        Item item = itemRepository.save(Item.builder().name("drill").description("drill").available(true)
+                .owner(user).build());
+        ItemRequest request = itemRequestRepository.save(ItemRequest.builder().description("need a drill")
+                .requestor(user).build());
+        sessionFactory.getCache().evictAllRegions();
+
+        for (int i = 0; i < 2; i++) {
+            userRepository.findById(user.getId()).orElseThrow();
+            itemRepository.findById(item.getId()).orElseThrow();
+            itemRequestRepository.findById(request.getId()).orElseThrow();
+        }
+
+        for (String region : new String[]{"users", "items", "requests"}) {
+            CacheRegionStatistics statistics = sessionFactory.getStatistics().getDomainDataRegionStatistics(region);
+            assertEquals(1, statistics.getMissCount(), region);
+            assertEquals(1, statistics.getHitCount(), region);
+        }
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", "items").tag("result", "hit").functionCounter().count() >= 1);
+    }
+
+    @Test
+    void save_whenEntityUpdated_thenRegionServesNewState() {
+        User user = userRepository.save(User.builder().name("before").email("update@cache.ru").build());
+        userRepository.findById(user.getId()).orElseThrow();
+
+        user.setName("after");
+        userRepository.save(user);
+
+        assertEquals("after", userRepository.findById(user.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void delete_whenUserOwnedCachedItemsAndRequests_thenRegionsForgetCascadedRows() {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@cache.ru").build());
+        User requestor = userRepository.save(User.builder().name("requestor").email("requestor@cache.ru").build());
+        ItemRequest request = itemRequestRepository.save(ItemRequest.builder().description("need a drill")
+                .requestor(requestor).build());
+        Item owned = itemRepository.save(Item.builder().name("drill").description("drill").available(true)
+                .owner(owner).build());
+        Item answer = itemRepository.save(Item.builder().name("saw").description("saw").available(true)
+                .owner(requestor).requester(request.getId()).build());
+        itemRepository.findById(owned.getId()).orElseThrow();
+        itemRepository.findById(answer.getId()).orElseThrow();
+        itemRequestRepository.findById(request.getId()).orElseThrow();
+
+        userService.delete(owner.getId());
+        userService.delete(requestor.getId());
+
+        assertFalse(itemRepository.findById(owned.getId()).isPresent());
+        assertFalse(itemRepository.findById(answer.getId()).isPresent());
+        assertFalse(itemRequestRepository.findById(request.getId()).isPresent());
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRequestRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SqlStatementCounter implements StatementInspector {
+    static AtomicInteger STATEMENTS = new AtomicInteger();
+
+    @Override
+    public String inspect(String sql) {
+        if (!sql.contains("nextval")) {
+            STATEMENTS.incrementAndGet();
+        }
+        return sql;
+    }
+
+    static void reset() {
+        STATEMENTS.set(0);
+    }
+
+    static int count() {
+        return STATEMENTS.get();
+    }
+}
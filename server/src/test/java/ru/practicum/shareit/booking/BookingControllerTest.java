@@ -12,21 +12,33 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.service.BookingExportService;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -40,6 +52,8 @@ class BookingControllerTest {
     ObjectMapper mapper;
     @MockBean
     BookingService bookingService;
+    @MockBean
+    BookingExportService bookingExportService;
     final BookingShortDto bookingShortDto = BookingShortDto.builder()
             .itemId(1L)
             .start(LocalDateTime.now().plusHours(1))
@@ -48,7 +62,8 @@ class BookingControllerTest {
     final Booking booking = new Booking(1L, LocalDateTime.now().plusHours(1), LocalDateTime.now().plusHours(2),
             Item.builder().id(1L).name("test").owner(User.builder().id(2L).build()).build(),
             User.builder().id(1L).name("test").build(),
-            BookingStatus.WAITING);
+            BookingStatus.WAITING, null);
+    final BookingView bookingView = view(booking);
 
     @SneakyThrows
     @Test
@@ -77,7 +92,7 @@ class BookingControllerTest {
     @Test
     void confirmRequest_whenInvoked_thenReturnResponseStatusOkWithBookingInBody() {
         booking.setStatus(BookingStatus.APPROVED);
-        when(bookingService.confirmRequest(any(), anyLong(), any())).thenReturn(booking);
+        when(bookingService.confirmRequest(any(), anyLong(), any())).thenReturn(view(booking));
 
 
         mvc.perform(MockMvcRequestBuilders.patch("/bookings/{bookingId}", 1L)
@@ -97,6 +112,29 @@ class BookingControllerTest {
         verify(bookingService).confirmRequest(any(), anyLong(), any());
     }
 
+    @SneakyThrows
+    @Test
+    void confirmRequests_whenInvoked_thenReturnResponseStatusOkWithOutcomesInBody() {
+        when(bookingService.confirmRequests(1L, List.of(1L, 2L), true)).thenReturn(List.of(
+                new BookingOutcomeDto(1L, BookingStatus.APPROVED, null),
+                new BookingOutcomeDto(2L, null, "Booking with 2 id not found.")));
+
+        mvc.perform(MockMvcRequestBuilders.patch("/bookings/bulk")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(BookingDecisionDto.builder()
+                                .ids(List.of(1L, 2L)).approved(true).build()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].bookingId").value(1L))
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].bookingId").value(2L))
+                .andExpect(jsonPath("$[1].error").value("Booking with 2 id not found."));
+
+        verify(bookingService).confirmRequests(1L, List.of(1L, 2L), true);
+    }
+
     @SneakyThrows
     @Test
     void getById_whenInvoked_thenReturnResponseStatusOkWithBookingInBody() {
@@ -135,7 +173,7 @@ class BookingControllerTest {
     @SneakyThrows
     @Test
     void getAllByUser_whenInvoked_thenReturnResponseStatusOkWithCollectionBookingsInBody() {
-        when(bookingService.getAllByUser(anyLong(), any(), anyInt(), anyInt())).thenReturn(List.of(booking));
+        when(bookingService.getAllByUser(anyLong(), any(), anyInt(), anyInt())).thenReturn(List.of(bookingView));
 
         mvc.perform(MockMvcRequestBuilders.get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -185,7 +223,7 @@ class BookingControllerTest {
     @SneakyThrows
     @Test
     void getAllByOwner_whenInvoked_thenReturnResponseStatusOkWithCollectionBookingsInBody() {
-        when(bookingService.getAllByOwner(anyLong(), any(), anyInt(), anyInt())).thenReturn(List.of(booking));
+        when(bookingService.getAllByOwner(anyLong(), any(), anyInt(), anyInt())).thenReturn(List.of(bookingView));
 
         mvc.perform(MockMvcRequestBuilders.get("/bookings/owner")
                         .header("X-Sharer-User-Id", 2L)
@@ -206,4 +244,135 @@ class BookingControllerTest {
 
         verify(bookingService).getAllByOwner(anyLong(), any(), anyInt(), anyInt());
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void getAllByUser_whenCursorEmptyAndPageFull_thenReturnNextCursorHeader() {
+        when(bookingService.getAllByUser(anyLong(), any(), (PageCursor) isNull(), anyInt()))
+                .thenReturn(List.of(bookingView));
+
+        mvc.perform(MockMvcRequestBuilders.get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].id").value(booking.getId()))
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        PageCursor.of(booking.getStart(), booking.getId()).encode()));
+
+        verify(bookingService).getAllByUser(anyLong(), any(), (PageCursor) isNull(), eq(1));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllByOwner_whenFromSizePageFull_thenNextCursorHeaderLeadsToNextPage() {
+        when(bookingService.getAllByOwner(anyLong(), any(), anyInt(), anyInt())).thenReturn(List.of(bookingView));
+        when(bookingService.getAllByOwner(anyLong(), any(), any(PageCursor.class), anyInt())).thenReturn(List.of());
+
+        String nextCursor = mvc.perform(MockMvcRequestBuilders.get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 2L)
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(PageCursor.NEXT_CURSOR_HEADER))
+                .andReturn().getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER);
+        mvc.perform(MockMvcRequestBuilders.get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 2L)
+                        .param("size", "1")
+                        .param("cursor", nextCursor)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*]").isEmpty())
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+
+        verify(bookingService).getAllByOwner(eq(2L), eq(State.ALL), eq(0), eq(1));
+        verify(bookingService).getAllByOwner(eq(2L), eq(State.ALL), argThat((PageCursor cursor) ->
+                booking.getStart().equals(cursor.getTime()) && booking.getId().equals(cursor.getId())), eq(1));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllByOwner_whenCursorGivenAndPageNotFull_thenReturnNoNextCursorHeader() {
+        String cursor = PageCursor.of(booking.getStart(), booking.getId()).encode();
+        when(bookingService.getAllByOwner(anyLong(), any(), any(PageCursor.class), anyInt()))
+                .thenReturn(List.of(bookingView));
+
+        mvc.perform(MockMvcRequestBuilders.get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", cursor)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+
+        verify(bookingService).getAllByOwner(anyLong(), any(), any(PageCursor.class), eq(10));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllByUser_whenCursorMalformed_thenReturnResponseStatusBadRequest() {
+        mvc.perform(MockMvcRequestBuilders.get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "%%%")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllByOwner_whenCursorOfIdKeyedList_thenReturnResponseStatusBadRequest() {
+        mvc.perform(MockMvcRequestBuilders.get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", PageCursor.of(5L).encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, never()).getAllByOwner(anyLong(), any(), any(PageCursor.class), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void countByOwner_whenInvoked_thenReturnResponseStatusOkWithCountsInBody() {
+        when(bookingService.countByOwner(2L)).thenReturn(Map.of(State.ALL, 3L, State.WAITING, 1L));
+
+        mvc.perform(MockMvcRequestBuilders.get("/bookings/owner/counts")
+                        .header("X-Sharer-User-Id", 2L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ALL").value(3))
+                .andExpect(jsonPath("$.WAITING").value(1));
+    }
+
+    @SneakyThrows
+    @Test
+    void exportByUser_whenInvoked_thenStreamNdjsonBody() {
+        when(bookingExportService.exportByUser(1L, State.PAST))
+                .thenReturn(out -> out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/bookings/export")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "PAST"))
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @SneakyThrows
+    @Test
+    void exportByOwner_whenUserNotFound_thenReturnResponseStatusNotFound() {
+        when(bookingExportService.exportByOwner(1L, State.ALL)).thenThrow(NotFoundException.class);
+
+        mvc.perform(MockMvcRequestBuilders.get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isNotFound());
+    }
+
+    private static BookingView view(Booking booking) {
+        return new BookingView(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getItem().getId(), booking.getItem().getName(), booking.getBooker().getId(),
+                booking.getBooker().getName());
+    }
+}
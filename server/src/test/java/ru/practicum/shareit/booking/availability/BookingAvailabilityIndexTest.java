@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingSlot;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class BookingAvailabilityIndexTest {
+    @Mock
+    BookingRepository bookingRepository;
+    BookingAvailabilityIndex bookingAvailabilityIndex;
+    final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        bookingAvailabilityIndex = new BookingAvailabilityIndex(bookingRepository,
+                new PrimaryReads(), 100);
+    }
+
+    @Test
+    void freeWindows_whenQueriedTwice_thenLoadItemBookingsOnce() {
+        when(bookingRepository.findAllByItemIdAndStatusIn(1L,
+                EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED)))
+                .thenReturn(List.of(new BookingSlot(1L, start.plusHours(2), start.plusHours(4), 1L, 2L)));
+
+        List<TimeWindow> windows = bookingAvailabilityIndex.freeWindows(1L, start, start.plusHours(6));
+
+        assertEquals(List.of(new TimeWindow(start, start.plusHours(2)),
+                new TimeWindow(start.plusHours(4), start.plusHours(6))), windows);
+        assertTrue(bookingAvailabilityIndex.isFree(1L, start, start.plusHours(2)));
+        assertFalse(bookingAvailabilityIndex.isFree(1L, start.plusHours(1), start.plusHours(3)));
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusIn(eq(1L), any());
+    }
+
+    @Test
+    void add_whenItemLoaded_thenIntervalBecomesBusy() {
+        when(bookingRepository.findAllByItemIdAndStatusIn(eq(1L), any())).thenReturn(List.of());
+        assertTrue(bookingAvailabilityIndex.isFree(1L, start, start.plusHours(1)));
+
+        bookingAvailabilityIndex.add(booking(5L, start, start.plusHours(1), 1L));
+
+        assertFalse(bookingAvailabilityIndex.isFree(1L, start, start.plusHours(1)));
+    }
+
+    @Test
+    void remove_whenBookingRejected_thenIntervalBecomesFree() {
+        when(bookingRepository.findAllByItemIdAndStatusIn(eq(1L), any()))
+                .thenReturn(List.of(new BookingSlot(5L, start, start.plusHours(1), 1L, 2L)));
+        assertFalse(bookingAvailabilityIndex.isFree(1L, start, start.plusHours(1)));
+
+        bookingAvailabilityIndex.remove(new BookingView(5L, start, start.plusHours(1), BookingStatus.REJECTED, 1L,
+                "drill", 2L, "booker"));
+
+        assertTrue(bookingAvailabilityIndex.isFree(1L, start, start.plusHours(1)));
+    }
+
+    @Test
+    void invalidateAll_whenUserDeleted_thenLoadItemBookingsAgain() {
+        BookingSlot booking = new BookingSlot(5L, start, start.plusHours(1), 1L, 2L);
+        when(bookingRepository.findAllByItemIdAndStatusIn(eq(1L), any())).thenReturn(List.of(booking), List.of());
+        assertFalse(bookingAvailabilityIndex.isFree(1L, start, start.plusHours(1)));
+
+        bookingAvailabilityIndex.invalidateAll();
+
+        assertTrue(bookingAvailabilityIndex.isFree(1L, start, start.plusHours(1)));
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusIn(eq(1L), any());
+    }
+
+    @Test
+    void add_whenItemNotLoaded_thenLeaveLoadingToFirstQuery() {
+        bookingAvailabilityIndex.add(booking(5L, start, start.plusHours(1), 1L));
+
+        verify(bookingRepository, never()).findAllByItemIdAndStatusIn(anyLong(), any());
+    }
+
+    private static Booking booking(Long id, LocalDateTime start, LocalDateTime end, Long itemId) {
+        return Booking.builder().id(id).start(start).end(end).item(Item.builder().id(itemId).build()).build();
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+    final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void overlaps_whenRangeTouchesIntervalBoundary_thenReturnFalse() {
+        IntervalTree tree = new IntervalTree();
+        tree.put(1L, at(10), at(20));
+
+        assertFalse(tree.overlaps(at(0), at(10)));
+        assertFalse(tree.overlaps(at(20), at(30)));
+        assertTrue(tree.overlaps(at(19), at(30)));
+        assertTrue(tree.overlaps(at(12), at(13)));
+    }
+
+    @Test
+    void gaps_whenIntervalsOverlapEachOther_thenReturnMergedFreeWindows() {
+        IntervalTree tree = new IntervalTree();
+        tree.put(1L, at(10), at(20));
+        tree.put(2L, at(15), at(25));
+        tree.put(3L, at(30), at(40));
+        tree.put(4L, at(32), at(35));
+
+        assertEquals(List.of(new TimeWindow(at(0), at(10)), new TimeWindow(at(25), at(30)),
+                new TimeWindow(at(40), at(50))), tree.gaps(at(0), at(50)));
+        assertEquals(List.of(), tree.gaps(at(12), at(24)));
+        assertEquals(List.of(new TimeWindow(at(26), at(29))), tree.gaps(at(26), at(29)));
+    }
+
+    @Test
+    void put_whenIdAlreadyPresent_thenReplaceInterval() {
+        IntervalTree tree = new IntervalTree();
+        tree.put(1L, at(10), at(20));
+        tree.put(1L, at(30), at(40));
+
+        assertEquals(1, tree.size());
+        assertFalse(tree.overlaps(at(10), at(20)));
+        assertTrue(tree.overlaps(at(30), at(40)));
+    }
+
+    @Test
+    void remove_whenRandomOperations_thenQueriesMatchLinearScan() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        Map<Long, TimeWindow> expected = new HashMap<>();
+        for (int operation = 0; operation < 5_000; operation++) {
+            long id = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                tree.remove(id);
+                expected.remove(id);
+            } else {
+                int start = random.nextInt(1_000);
+                TimeWindow window = new TimeWindow(at(start), at(start + 1 + random.nextInt(30)));
+                tree.put(id, window.getStart(), window.getEnd());
+                expected.put(id, window);
+            }
+            int from = random.nextInt(1_000);
+            LocalDateTime queryStart = at(from);
+            LocalDateTime queryEnd = at(from + 1 + random.nextInt(50));
+            List<TimeWindow> overlapping = expected.values().stream()
+                    .filter(window -> window.getStart().isBefore(queryEnd) && window.getEnd().isAfter(queryStart))
+                    .sorted(Comparator.comparing(TimeWindow::getStart))
+                    .collect(Collectors.toList());
+
+            assertEquals(expected.size(), tree.size());
+            assertEquals(!overlapping.isEmpty(), tree.overlaps(queryStart, queryEnd));
+            assertEquals(starts(overlapping), starts(tree.overlapping(queryStart, queryEnd)));
+        }
+    }
+
+    private LocalDateTime at(int hours) {
+        return base.plusHours(hours);
+    }
+
+    private static List<LocalDateTime> starts(List<TimeWindow> windows) {
+        return new ArrayList<>(windows.stream().map(TimeWindow::getStart).collect(Collectors.toList()));
+    }
+}
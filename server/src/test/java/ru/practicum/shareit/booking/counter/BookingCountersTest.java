@@ -0,0 +1,194 @@
+package ru.practicum.shareit.booking.counter;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datasource.PrimaryReads;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class BookingCountersTest {
+    @Mock
+    BookingRepository bookingRepository;
+    BookingCounters bookingCounters;
+
+    @BeforeEach
+    void setUp() {
+        bookingCounters = new BookingCounters(bookingRepository,
+                new PrimaryReads(), 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void countByBooker_whenBookingCreatedAndRejected_thenUpdateStatusesWithoutQueryingThemAgain() {
+        when(bookingRepository.countStatusesByBooker(1L)).thenReturn(new StatusCounts(2L, 1L));
+        when(bookingRepository.countTimesByBooker(eq(1L), any()))
+                .thenReturn(new TimeCounts(3L, 1L, 2L, null, LocalDateTime.now().plusDays(1), null),
+                        new TimeCounts(4L, 1L, 3L, null, LocalDateTime.now().plusDays(1), null));
+
+        assertEquals(Map.of(State.ALL, 3L, State.CURRENT, 0L, State.PAST, 1L, State.FUTURE, 2L,
+                State.WAITING, 2L, State.REJECTED, 1L), bookingCounters.countByBooker(1L));
+        bookingCounters.created(1L, 2L);
+        bookingCounters.decided(1L, 2L, BookingStatus.REJECTED);
+        bookingCounters.created(1L, 2L);
+
+        assertEquals(Map.of(State.ALL, 4L, State.CURRENT, 0L, State.PAST, 1L, State.FUTURE, 3L,
+                State.WAITING, 3L, State.REJECTED, 2L), bookingCounters.countByBooker(1L));
+        verify(bookingRepository, times(1)).countStatusesByBooker(1L);
+        verify(bookingRepository, times(2)).countTimesByBooker(eq(1L), any());
+        verify(bookingRepository, never()).countStatusesByOwner(any());
+    }
+
+    @Test
+    void countByOwner_whenNothingChanges_thenQueryOnceUntilNextStartOrEnd() {
+        when(bookingRepository.countStatusesByOwner(2L)).thenReturn(new StatusCounts(1L, null));
+        when(bookingRepository.countTimesByOwner(eq(2L), any()))
+                .thenReturn(new TimeCounts(1L, 0L, 1L, 0L, LocalDateTime.now().plusDays(1), null));
+
+        bookingCounters.countByOwner(2L);
+        Map<State, Long> counts = bookingCounters.countByOwner(2L);
+
+        assertEquals(1L, counts.get(State.WAITING));
+        assertEquals(0L, counts.get(State.REJECTED));
+        verify(bookingRepository, times(1)).countStatusesByOwner(2L);
+        verify(bookingRepository, times(1)).countTimesByOwner(eq(2L), any());
+    }
+
+    @Test
+    void countByOwner_whenBookingApproved_thenUpdateStatusesAndKeepTimes() {
+        when(bookingRepository.countStatusesByOwner(2L)).thenReturn(new StatusCounts(1L, null));
+        when(bookingRepository.countTimesByOwner(eq(2L), any()))
+                .thenReturn(new TimeCounts(1L, 0L, 1L, 0L, LocalDateTime.now().plusDays(1), null));
+
+        bookingCounters.countByOwner(2L);
+        bookingCounters.decided(1L, 2L, BookingStatus.APPROVED);
+        Map<State, Long> counts = bookingCounters.countByOwner(2L);
+
+        assertEquals(0L, counts.get(State.WAITING));
+        assertEquals(0L, counts.get(State.REJECTED));
+        verify(bookingRepository, times(1)).countStatusesByOwner(2L);
+        verify(bookingRepository, times(1)).countTimesByOwner(eq(2L), any());
+    }
+
+    @Test
+    void created_whenTransactionRolledBack_thenStatusesUnchangedAndStillCached() {
+        when(bookingRepository.countStatusesByBooker(1L)).thenReturn(new StatusCounts(1L, 0L));
+        when(bookingRepository.countTimesByBooker(eq(1L), any()))
+                .thenReturn(new TimeCounts(1L, 0L, 1L, 0L, LocalDateTime.now().plusDays(1), null));
+        bookingCounters.countByBooker(1L);
+
+        inTransaction(() -> bookingCounters.created(1L, 2L), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(1L, bookingCounters.countByBooker(1L).get(State.WAITING));
+        verify(bookingRepository, times(1)).countStatusesByBooker(1L);
+    }
+
+    @Test
+    void countByBooker_whenBookingCreatedWhileLoading_thenNotCountedTwice() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        when(bookingRepository.countStatusesByBooker(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            committed.await(5, TimeUnit.SECONDS);
+            return new StatusCounts(3L, 0L);
+        }).thenReturn(new StatusCounts(3L, 0L));
+        when(bookingRepository.countTimesByBooker(eq(1L), any()))
+                .thenReturn(new TimeCounts(3L, 0L, 3L, 0L, LocalDateTime.now().plusDays(1), null));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<State, Long>> load = executor.submit(() -> bookingCounters.countByBooker(1L));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            inTransaction(() -> {
+                bookingCounters.created(1L, 2L);
+                committed.countDown();
+                assertEquals(3L, load.get(5, TimeUnit.SECONDS).get(State.WAITING));
+            }, TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(3L, bookingCounters.countByBooker(1L).get(State.WAITING));
+        verify(bookingRepository, times(2)).countStatusesByBooker(1L);
+    }
+
+    @Test
+    void countByBooker_whenLoadedAfterChangeFinished_thenCachedAndIncremented() {
+        when(bookingRepository.countStatusesByBooker(1L)).thenReturn(new StatusCounts(1L, 0L));
+        when(bookingRepository.countTimesByBooker(eq(1L), any()))
+                .thenReturn(new TimeCounts(1L, 0L, 1L, 0L, LocalDateTime.now().plusDays(1), null));
+        inTransaction(() -> bookingCounters.created(1L, 2L), TransactionSynchronization.STATUS_COMMITTED);
+
+        bookingCounters.countByBooker(1L);
+        bookingCounters.created(1L, 2L);
+
+        assertEquals(2L, bookingCounters.countByBooker(1L).get(State.WAITING));
+        verify(bookingRepository, times(1)).countStatusesByBooker(1L);
+    }
+
+    @Test
+    void invalidateAll_whenUserDeleted_thenCountEveryoneAgain() {
+        when(bookingRepository.countStatusesByOwner(2L)).thenReturn(new StatusCounts(1L, null));
+        when(bookingRepository.countTimesByOwner(eq(2L), any()))
+                .thenReturn(new TimeCounts(1L, 0L, 1L, 0L, LocalDateTime.now().plusDays(1), null));
+
+        bookingCounters.countByOwner(2L);
+        bookingCounters.invalidateAll();
+        bookingCounters.countByOwner(2L);
+
+        verify(bookingRepository, times(2)).countStatusesByOwner(2L);
+        verify(bookingRepository, times(2)).countTimesByOwner(eq(2L), any());
+    }
+
+    @Test
+    void countByOwner_whenBookingStartedSinceLastCount_thenCountTimesAgain() {
+        when(bookingRepository.countStatusesByOwner(2L)).thenReturn(new StatusCounts(0L, 0L));
+        when(bookingRepository.countTimesByOwner(eq(2L), any()))
+                .thenReturn(new TimeCounts(1L, 0L, 1L, 0L, LocalDateTime.now().minusSeconds(1), null));
+
+        bookingCounters.countByOwner(2L);
+        bookingCounters.countByOwner(2L);
+
+        verify(bookingRepository, times(1)).countStatusesByOwner(2L);
+        verify(bookingRepository, times(2)).countTimesByOwner(eq(2L), any());
+    }
+
+    private static void inTransaction(Executable body, int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertDoesNotThrow(body);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+            }
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * Insert throughput of bookings by JDBC batch size alone. Both runs use the pooled sequence ids, so this does not
+ * measure the old IDENTITY mapping, under which Hibernate could not batch inserts at all.
+ */
+@Tag("benchmark")
+@RunWith(SpringRunner.class)
+@DataJpaTest(showSql = false, properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BatchInsertBenchmarkTest {
+    static int ROWS = 20_000;
+    static int FLUSH_EVERY = 1_000;
+    @Autowired
+    EntityManager entityManager;
+
+    @Test
+    void insertBookings_batchSizeOneVersusFifty() {
+        report("batch of 1", 1);
+        report("batch of 50", 50);
+    }
+
+    private void report(String name, int batchSize) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+        User user = User.builder().name(name).email(name.replace(' ', '_') + "@bench.ru").build();
+        entityManager.persist(user);
+        Item item = Item.builder().name(name).description(name).available(true).owner(user).build();
+        entityManager.persist(item);
+        entityManager.flush();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        long started = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            entityManager.persist(Booking.builder()
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i + 1))
+                    .item(item)
+                    .booker(user)
+                    .status(BookingStatus.WAITING)
+                    .build());
+            if ((i + 1) % FLUSH_EVERY == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                item = entityManager.getReference(Item.class, item.getId());
+                user = entityManager.getReference(User.class, user.getId());
+            }
+        }
+        entityManager.flush();
+        long elapsed = System.nanoTime() - started;
+        entityManager.clear();
+        session.setJdbcBatchSize(null);
+
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        System.out.printf("%-12s %10.0f rows/s %8d statements%n", name,
+                ROWS / (elapsed / 1_000_000_000.0), statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+@RunWith(SpringRunner.class)
+@DataJpaTest(showSql = false, properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingProjectionBenchmarkTest {
+    static int OWNERS = 100;
+    static int ITEMS = 1_000;
+    static int BOOKINGS = 10_000;
+    static int PAGE_SIZE = 20;
+    static int WARMUP = 200;
+    static int ITERATIONS = 1_000;
+    static Pageable PAGE = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "start", "id"));
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    EntityManager entityManager;
+    long bookerId;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i <= OWNERS; i++) {
+            users.add(new Object[]{i + 1, "user " + i, "user" + i + "@bench.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+        List<Long> userIds = jdbcTemplate.queryForList("select id from users order by id", Long.class);
+        bookerId = userIds.get(0);
+
+        String description = "d".repeat(1000);
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Object[]{i + 1, "item " + i, description, userIds.get(1 + i % OWNERS)});
+        }
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, id_owner) " +
+                "values (?, ?, ?, true, ?)", items);
+        List<Long> itemIds = jdbcTemplate.queryForList("select id from items order by id", Long.class);
+
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(new Object[]{i + 1, Timestamp.valueOf(start.plusHours(i)),
+                    Timestamp.valueOf(start.plusHours(i + 1)), itemIds.get(i % ITEMS), bookerId});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "values (?, ?, ?, ?, ?, 'WAITING')", bookings);
+    }
+
+    @Test
+    void getAllByUser_entityVersusProjection() {
+        report("entity", () -> entityManager.createQuery("select b from Booking b where b.booker.id = :userId " +
+                        "order by b.start desc, b.id desc", Booking.class)
+                .setParameter("userId", bookerId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultStream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList()));
+        report("projection", () -> BookingMapper.toListBookingDto(bookingRepository.findAllByBooker(bookerId, PAGE)));
+    }
+
+    private void report(String name, Supplier<List<BookingDto>> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            assertEquals(PAGE_SIZE, runInFreshContext(query).size());
+        }
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            runInFreshContext(query);
+        }
+        long elapsed = System.nanoTime() - started;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("%-12s %8.1f us/request %10d bytes/request %5.1f statements/request %5.1f entities/request%n",
+                name, elapsed / 1_000.0 / ITERATIONS, allocated / ITERATIONS,
+                (double) statistics.getPrepareStatementCount() / ITERATIONS,
+                (double) statistics.getEntityLoadCount() / ITERATIONS);
+    }
+
+    private List<BookingDto> runInFreshContext(Supplier<List<BookingDto>> query) {
+        entityManager.clear();
+        return query.get();
+    }
+}
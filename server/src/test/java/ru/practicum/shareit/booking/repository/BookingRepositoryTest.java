@@ -0,0 +1,281 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.counter.StatusCounts;
+import ru.practicum.shareit.booking.counter.TimeCounts;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingSlot;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+class BookingRepositoryTest {
+    static Pageable PAGE = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "start", "id"));
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    TestEntityManager entityManager;
+    User owner;
+    User booker;
+    List<Booking> bookings;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@mail.ru").build());
+        Item item = itemRepository.save(Item.builder().name("test").description("test").available(true).owner(owner).build());
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        bookings = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            bookings.add(bookingRepository.save(Booking.builder()
+                    .start(start.plusDays(i / 2))
+                    .end(start.plusDays(i / 2 + 1))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.WAITING)
+                    .build()));
+        }
+    }
+
+    @Test
+    void findAllByBookerAfter_whenPagedByCursor_thenReturnEveryBookingOnceInOrder() {
+        List<BookingView> page = bookingRepository.findAllByBooker(booker.getId(), PAGE);
+        List<Long> seen = new ArrayList<>();
+        while (!page.isEmpty()) {
+            page.forEach(booking -> seen.add(booking.getId()));
+            BookingView last = page.get(page.size() - 1);
+            page = bookingRepository.findAllByBookerAfter(booker.getId(), last.getStart(), last.getId(), PAGE);
+        }
+
+        assertEquals(expectedOrder(), seen);
+    }
+
+    @Test
+    void findAllByOwnerAndStatusAfter_whenPagedByCursor_thenReturnEveryBookingOnceInOrder() {
+        List<BookingView> page = bookingRepository.findAllByOwnerAndStatus(owner.getId(), BookingStatus.WAITING, PAGE);
+        List<Long> seen = new ArrayList<>();
+        while (!page.isEmpty()) {
+            page.forEach(booking -> seen.add(booking.getId()));
+            BookingView last = page.get(page.size() - 1);
+            page = bookingRepository.findAllByOwnerAndStatusAfter(owner.getId(), BookingStatus.WAITING,
+                    last.getStart(), last.getId(), PAGE);
+        }
+
+        assertEquals(expectedOrder(), seen);
+    }
+
+    @Test
+    void findFutureByBookerAfter_whenCursorGiven_thenReturnOnlyFutureBookingsAfterCursor() {
+        Booking cursor = bookings.get(4);
+
+        List<BookingView> page = bookingRepository.findFutureByBookerAfter(booker.getId(), LocalDateTime.now(),
+                cursor.getStart(), cursor.getId(), PAGE);
+
+        assertEquals(expectedOrder().subList(1, 3), page.stream().map(BookingView::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findAllByOwner_whenInvoked_thenReturnViewsWithDtoFields() {
+        BookingView booking = bookingRepository.findAllByOwner(owner.getId(), PAGE).get(0);
+
+        assertEquals(bookings.get(4).getId(), booking.getId());
+        assertEquals(bookings.get(4).getStart(), booking.getStart());
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+        assertEquals(bookings.get(4).getItem().getId(), booking.getItemId());
+        assertEquals("test", booking.getItemName());
+        assertEquals(booker.getId(), booking.getBookerId());
+        assertEquals("booker", booking.getBookerName());
+    }
+
+    @Test
+    void findById_whenInvoked_thenAssociationsNotLoaded() {
+        entityManager.flush();
+        entityManager.clear();
+
+        Booking booking = bookingRepository.findById(bookings.get(0).getId()).orElseThrow();
+
+        assertFalse(isLoaded(booking, "item"));
+        assertFalse(isLoaded(booking, "booker"));
+    }
+
+    @Test
+    void findWithItemAndBookerById_whenInvoked_thenItemAndBookerLoadedWithoutOwner() {
+        entityManager.flush();
+        entityManager.clear();
+
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookings.get(0).getId()).orElseThrow();
+
+        assertTrue(isLoaded(booking, "item"));
+        assertTrue(isLoaded(booking, "booker"));
+        assertFalse(isLoaded(booking.getItem(), "owner"));
+        assertEquals(owner.getId(), booking.getItem().getOwner().getId());
+    }
+
+    @Test
+    void findLastAndNextByItemIdIn_whenItemsHaveHistory_thenReturnOneLastAndOneNextPerItem() {
+        Item first = itemRepository.save(Item.builder().name("first").description("first").available(true).owner(owner).build());
+        Item second = itemRepository.save(Item.builder().name("second").description("second").available(true).owner(owner).build());
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+        approved(first, now.minusDays(10));
+        Booking firstLast = approved(first, now.minusDays(2));
+        Booking firstNext = approved(first, now.plusDays(1));
+        approved(first, now.plusDays(5));
+        Booking secondLast = approved(second, now.minusHours(1));
+        bookingRepository.save(Booking.builder().start(now.plusHours(1)).end(now.plusHours(2)).item(second)
+                .booker(booker).status(BookingStatus.REJECTED).build());
+
+        List<BookingSlot> slots = bookingRepository.findLastAndNextByItemIdIn(List.of(first.getId(), second.getId()),
+                BookingStatus.APPROVED.name(), now);
+
+        assertEquals(Set.of(firstLast.getId(), firstNext.getId(), secondLast.getId()),
+                slots.stream().map(BookingSlot::getId).collect(Collectors.toSet()));
+        BookingSlot slot = slots.stream().filter(booking -> booking.getId().equals(firstNext.getId())).findFirst()
+                .orElseThrow();
+        assertEquals(first.getId(), slot.getItemId());
+        assertEquals(booker.getId(), slot.getBookerId());
+        assertEquals(firstNext.getStart(), slot.getStart());
+    }
+
+    @Test
+    void approveIfWaiting_whenCalledTwice_thenOnlyFirstCallUpdates() {
+        Long id = bookings.get(4).getId();
+
+        assertEquals(1, bookingRepository.approveIfWaiting(id, owner.getId()));
+        assertEquals(0, bookingRepository.approveIfWaiting(id, owner.getId()));
+        assertEquals(0, bookingRepository.rejectIfWaiting(id, owner.getId()));
+
+        entityManager.clear();
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findViewById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void approveIfWaiting_whenNotOwner_thenNothingUpdated() {
+        Long id = bookings.get(4).getId();
+
+        assertEquals(0, bookingRepository.approveIfWaiting(id, booker.getId()));
+        assertEquals(0, bookingRepository.rejectIfWaiting(id, booker.getId()));
+
+        entityManager.clear();
+        assertEquals(BookingStatus.WAITING, bookingRepository.findViewById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void approveIfWaiting_whenOverlapsApprovedBooking_thenNothingUpdated() {
+        assertEquals(1, bookingRepository.approveIfWaiting(bookings.get(0).getId(), owner.getId()));
+
+        assertEquals(0, bookingRepository.approveIfWaiting(bookings.get(1).getId(), owner.getId()));
+        assertEquals(1, bookingRepository.rejectIfWaiting(bookings.get(1).getId(), owner.getId()));
+        assertEquals(1, bookingRepository.approveIfWaiting(bookings.get(2).getId(), owner.getId()));
+
+        entityManager.clear();
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findViewById(bookings.get(1).getId()).orElseThrow()
+                .getStatus());
+    }
+
+    @Test
+    void approveAllIfWaiting_whenSomeNotWaiting_thenUpdateOnlyWaitingOnes() {
+        bookingRepository.rejectIfWaiting(bookings.get(0).getId(), owner.getId());
+        Set<Long> ids = Set.of(bookings.get(0).getId(), bookings.get(2).getId(), bookings.get(4).getId());
+
+        assertEquals(0, bookingRepository.approveAllIfWaiting(ids, booker.getId()));
+        assertEquals(2, bookingRepository.approveAllIfWaiting(ids, owner.getId()));
+
+        entityManager.clear();
+        assertEquals(List.of(BookingStatus.APPROVED, BookingStatus.APPROVED, BookingStatus.REJECTED),
+                bookingRepository.findAllByOwnerAndIdIn(owner.getId(), ids).stream()
+                        .sorted(Comparator.comparing(BookingView::getId, Comparator.reverseOrder()))
+                        .map(BookingView::getStatus)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void countStatusesByOwner_whenSomeDecided_thenCountWaitingAndRejected() {
+        bookingRepository.rejectIfWaiting(bookings.get(0).getId(), owner.getId());
+        bookingRepository.approveIfWaiting(bookings.get(2).getId(), owner.getId());
+
+        StatusCounts counts = bookingRepository.countStatusesByOwner(owner.getId());
+
+        assertEquals(3, counts.getWaiting());
+        assertEquals(1, counts.getRejected());
+        assertEquals(0, bookingRepository.countStatusesByOwner(booker.getId()).getWaiting());
+    }
+
+    @Test
+    void countTimesByBooker_whenBookingsAroundNow_thenCountEveryStateWithOneQuery() {
+        LocalDateTime now = bookings.get(2).getStart().plusHours(1);
+
+        TimeCounts counts = bookingRepository.countTimesByBooker(booker.getId(), now);
+
+        assertEquals(5, counts.getAll());
+        assertEquals(2, counts.getPast());
+        assertEquals(2, counts.getCurrent());
+        assertEquals(1, counts.getFuture());
+        assertEquals(bookings.get(2).getEnd(), counts.getChangesAt());
+        assertEquals(0, bookingRepository.countTimesByBooker(owner.getId(), now).getAll());
+        assertNull(bookingRepository.countTimesByBooker(owner.getId(), now).getChangesAt());
+    }
+
+    @Test
+    void streamAllByOwner_whenInvoked_thenReturnEveryBookingInOrder() {
+        try (Stream<BookingView> stream = bookingRepository.streamAllByOwner(owner.getId())) {
+            assertEquals(expectedOrder(), stream.map(BookingView::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void streamAllByBookerAndStatus_whenSomeRejected_thenReturnOnlyMatchingBookings() {
+        bookingRepository.rejectIfWaiting(bookings.get(1).getId(), owner.getId());
+        entityManager.clear();
+
+        try (Stream<BookingView> stream = bookingRepository.streamAllByBookerAndStatus(booker.getId(),
+                BookingStatus.REJECTED)) {
+            assertEquals(List.of(bookings.get(1).getId()), stream.map(BookingView::getId).collect(Collectors.toList()));
+        }
+    }
+
+    private Booking approved(Item item, LocalDateTime start) {
+        return bookingRepository.save(Booking.builder().start(start).end(start.plusHours(1)).item(item).booker(booker)
+                .status(BookingStatus.APPROVED).build());
+    }
+
+    private boolean isLoaded(Object entity, String attribute) {
+        return entityManager.getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil()
+                .isLoaded(entity, attribute);
+    }
+
+    private List<Long> expectedOrder() {
+        return List.of(bookings.get(4).getId(), bookings.get(3).getId(), bookings.get(2).getId(),
+                bookings.get(1).getId(), bookings.get(0).getId());
+    }
+}
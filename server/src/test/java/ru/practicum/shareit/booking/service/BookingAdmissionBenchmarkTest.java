@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.availability.StripedItemLocks;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+@SpringBootTest(properties = "logging.level.root=WARN")
+class BookingAdmissionBenchmarkTest {
+    static int THREADS = 8;
+    static int BOOKINGS_PER_THREAD = 250;
+    static LocalDateTime START = LocalDateTime.now().plusYears(1);
+    @Autowired
+    BookingService bookingService;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    UserCache userCache;
+    @Autowired
+    BookingAvailabilityIndex bookingAvailabilityIndex;
+    @Autowired
+    BookingCounters bookingCounters;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    List<User> bookers;
+    List<Item> items;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@bench.ru").build());
+        bookers = new ArrayList<>();
+        items = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userRepository.save(User.builder().name("booker " + i).email("booker" + i + "@bench.ru")
+                    .build()));
+            items.add(itemRepository.save(Item.builder().name("item " + i).description("item " + i).available(true)
+                    .owner(owner).build()));
+        }
+    }
+
+    @Test
+    void create_hotItemVersusManyItems() throws Exception {
+        BookingService globalLock = new BookingServiceIml(bookingRepository, userCache, itemRepository,
+                bookingAvailabilityIndex, new StripedItemLocks(1), bookingCounters, transactionTemplate);
+
+        report("warm-up", bookingService, thread -> items.get(thread), 0);
+        report("hot item, striped", bookingService, thread -> items.get(0), 1);
+        report("many items, striped", bookingService, thread -> items.get(thread), 2);
+        report("many items, one lock", globalLock, thread -> items.get(thread), 3);
+    }
+
+    private void report(String name, BookingService service, IntFunction<Item> itemOfThread, int round)
+            throws Exception {
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int slot = (round * THREADS + thread) * BOOKINGS_PER_THREAD;
+            User booker = bookers.get(thread);
+            Item item = itemOfThread.apply(thread);
+            futures.add(executor.submit(() -> {
+                ready.await();
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    LocalDateTime start = START.plusHours(slot + i);
+                    service.create(Booking.builder().start(start).end(start.plusHours(1)).build(), booker.getId(),
+                            item.getId());
+                }
+                return null;
+            }));
+        }
+        long started = System.nanoTime();
+        ready.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        executor.shutdown();
+        assertEquals((long) (round + 1) * THREADS * BOOKINGS_PER_THREAD, bookingRepository.count());
+        System.out.printf("%-22s %8.0f bookings/s%n", name,
+                THREADS * BOOKINGS_PER_THREAD / (elapsed / 1_000_000_000.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
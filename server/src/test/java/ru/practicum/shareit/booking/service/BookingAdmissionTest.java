@@ -0,0 +1,176 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingAdmissionTest {
+    static int THREADS = 8;
+    @Autowired
+    BookingService bookingService;
+    @Autowired
+    BookingAvailabilityIndex bookingAvailabilityIndex;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    void create_whenConcurrentRequestsOverlap_thenAdmitExactlyOne() throws Exception {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@admission.ru").build());
+        Item item = itemRepository.save(Item.builder().name("drill").description("drill").available(true)
+                .owner(owner).build());
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userRepository.save(User.builder().name("booker " + i).email("booker" + i + "@admission.ru")
+                    .build()));
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        assertTrue(bookingAvailabilityIndex.isFree(item.getId(), start, start.plusHours(4)));
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            User booker = bookers.get(i);
+            LocalDateTime bookingStart = start.plusHours(i % 2);
+            results.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingService.create(Booking.builder().start(bookingStart).end(bookingStart.plusHours(3)).build(),
+                            booker.getId(), item.getId());
+                    return true;
+                } catch (ValidationException e) {
+                    return false;
+                }
+            }));
+        }
+        ready.countDown();
+        int admitted = 0;
+        for (Future<Boolean> result : results) {
+            admitted += result.get() ? 1 : 0;
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, admitted);
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void confirmRequest_whenConcurrentDecisions_thenExactlyOneWins() throws Exception {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@admission.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker@admission.ru").build());
+        Item item = itemRepository.save(Item.builder().name("drill").description("drill").available(true)
+                .owner(owner).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = bookingRepository.save(Booking.builder().start(start).end(start.plusHours(3)).item(item)
+                .booker(booker).status(BookingStatus.WAITING).build());
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<BookingStatus>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean approve = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    return bookingService.confirmRequest(owner.getId(), booking.getId(), approve).getStatus();
+                } catch (ValidationException e) {
+                    return null;
+                }
+            }));
+        }
+        ready.countDown();
+        List<BookingStatus> decisions = new ArrayList<>();
+        for (Future<BookingStatus> result : results) {
+            BookingStatus status = result.get();
+            if (status != null) {
+                decisions.add(status);
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, decisions.size());
+        assertEquals(decisions.get(0), bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void confirmRequest_whenConcurrentApprovalsOfOverlappingBookings_thenApproveExactlyOne() throws Exception {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@admission.ru").build());
+        Item item = itemRepository.save(Item.builder().name("drill").description("drill").available(true)
+                .owner(owner).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            User booker = userRepository.save(User.builder().name("booker " + i).email("booker" + i + "@admission.ru")
+                    .build());
+            LocalDateTime bookingStart = start.plusHours(i % 2);
+            bookings.add(bookingRepository.save(Booking.builder().start(bookingStart).end(bookingStart.plusHours(3))
+                    .item(item).booker(booker).status(BookingStatus.WAITING).build()));
+        }
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Long bookingId = bookings.get(i).getId();
+            boolean bulk = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                ready.await();
+                if (bulk) {
+                    return bookingService.confirmRequests(owner.getId(), List.of(bookingId), true).get(0)
+                            .getError() == null;
+                }
+                try {
+                    bookingService.confirmRequest(owner.getId(), bookingId, true);
+                    return true;
+                } catch (ValidationException e) {
+                    return false;
+                }
+            }));
+        }
+        ready.countDown();
+        int approved = 0;
+        for (Future<Boolean> result : results) {
+            approved += result.get() ? 1 : 0;
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, approved);
+        assertEquals(1, bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .count());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
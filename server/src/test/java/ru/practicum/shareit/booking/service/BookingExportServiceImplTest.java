@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class BookingExportServiceImplTest {
+    @Mock
+    BookingRepository bookingRepository;
+    @Mock
+    UserCache userCache;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    EntityManager entityManager;
+    BookingExportServiceImpl bookingExportService;
+    final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        bookingExportService = new BookingExportServiceImpl(Jackson2ObjectMapperBuilder.json().build(),
+                bookingRepository, userCache, transactionManager, entityManager);
+    }
+
+    @Test
+    void exportByUser_whenUserNotFound_thenNotFoundExceptionThrownBeforeStreaming() {
+        when(userCache.find(1L)).thenReturn(Optional.empty());
+
+        NotFoundException e = assertThrows(NotFoundException.class,
+                () -> bookingExportService.exportByUser(1L, State.ALL));
+        assertEquals("User with 1 id not found.", e.getMessage());
+
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void exportByUser_whenPastState_thenWriteOneJsonLinePerBookingAndCloseStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userCache.find(1L)).thenReturn(Optional.of(User.builder().id(1L).build()));
+        when(bookingRepository.streamPastByBooker(eq(1L), any()))
+                .thenReturn(Stream.of(booking(2L), booking(1L)).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookingExportService.exportByUser(1L, State.PAST).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":2,"));
+        assertTrue(lines[1].contains("\"booker\":{\"id\":1,\"name\":\"booker\"}"));
+        assertTrue(closed.get());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void exportByOwner_whenManyBookings_thenClearPersistenceContextPeriodically() throws Exception {
+        when(userCache.find(2L)).thenReturn(Optional.of(User.builder().id(2L).build()));
+        when(bookingRepository.streamAllByOwnerAndStatus(2L, BookingStatus.WAITING))
+                .thenReturn(LongStream.rangeClosed(1, 1200).mapToObj(this::booking));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookingExportService.exportByOwner(2L, State.WAITING).writeTo(out);
+
+        assertEquals(1200, out.toString(StandardCharsets.UTF_8).lines().count());
+        verify(entityManager, times(2)).clear();
+    }
+
+    private BookingView booking(long id) {
+        return new BookingView(id, start.plusDays(id), start.plusDays(id + 1), BookingStatus.WAITING,
+                3L, "item", 1L, "booker");
+    }
+}
@@ -6,25 +6,41 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.availability.StripedItemLocks;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,18 +49,28 @@ class BookingServiceImlTest {
     @Mock
     BookingRepository bookingRepository;
     @Mock
-    UserRepository userRepository;
+    UserCache userCache;
     @Mock
     ItemRepository itemRepository;
+    @Mock
+    BookingAvailabilityIndex bookingAvailabilityIndex;
+    @Spy
+    StripedItemLocks itemLocks = new StripedItemLocks(4);
+    @Mock
+    BookingCounters bookingCounters;
+    @Spy
+    TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
     @InjectMocks
     BookingServiceIml bookingService;
     final User user = new User(1L, "test@mail.ru", "test");
-    final Item item = new Item(1L, "test", "test", true, user, 2L, null, null, null);
-    final Booking booking = new Booking(1L, LocalDateTime.now(), LocalDateTime.now().plusHours(1), item, user, null);
+    final Item item = new Item(1L, "test", "test", true, user, 2L, null);
+    final Booking booking = new Booking(1L, LocalDateTime.now(), LocalDateTime.now().plusHours(1), item, user, null,
+            null);
+    final BookingView bookingView = view(booking);
 
     @Test
     void create_whenFindUserEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.create(booking, user.getId(), item.getId()));
         assertEquals("User with 1 id not found.", e.getMessage());
@@ -54,7 +80,7 @@ class BookingServiceImlTest {
 
     @Test
     void create_whenFindItemEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.create(booking, user.getId(), item.getId()));
@@ -66,7 +92,7 @@ class BookingServiceImlTest {
     @Test
     void create_whenItemAvailableFalse_thenValidationExceptionThrown() {
         item.setAvailable(false);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
 
         ValidationException e = assertThrows(ValidationException.class, () -> bookingService.create(booking, user.getId(), item.getId()));
@@ -77,7 +103,7 @@ class BookingServiceImlTest {
 
     @Test
     void create_whenRefusedAccess_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.create(booking, user.getId(), item.getId()));
@@ -86,11 +112,27 @@ class BookingServiceImlTest {
         verify(bookingRepository, never()).save(any());
     }
 
+    @Test
+    void create_whenDatesOverlapExistingBooking_thenValidationExceptionThrown() {
+        item.setOwner(User.builder().id(2L).build());
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingAvailabilityIndex.isFree(item.getId(), booking.getStart(), booking.getEnd())).thenReturn(false);
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> bookingService.create(booking, user.getId(), item.getId()));
+        assertEquals("Item test is already booked for these dates.", e.getMessage());
+
+        verify(bookingRepository, never()).save(any());
+        verify(itemLocks).withLock(eq(item.getId()), any());
+    }
+
     @Test
     void create_whenInvoked_thenReturnBooking() {
         item.setOwner(User.builder().id(2L).build());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingAvailabilityIndex.isFree(item.getId(), booking.getStart(), booking.getEnd())).thenReturn(true);
         when(bookingRepository.save(any())).thenReturn(booking);
 
         Booking actualBooking = bookingService.create(booking, user.getId(), item.getId());
@@ -98,20 +140,26 @@ class BookingServiceImlTest {
         assertEquals(booking.getId(), actualBooking.getId());
         assertEquals(BookingStatus.WAITING, actualBooking.getStatus());
         verify(bookingRepository).save(any());
+        verify(bookingAvailabilityIndex).add(booking);
+        verify(bookingCounters).created(user.getId(), 2L);
     }
 
     @Test
     void confirmRequest_whenFindBookingEmpty_thenNotFoundExceptionThrown() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(bookingRepository.findItemIdById(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.confirmRequest(user.getId(), booking.getId(), true));
         assertEquals("Booking with 1 id not found.", e.getMessage());
+        verify(bookingRepository, never()).approveIfWaiting(anyLong(), anyLong());
+        verify(itemLocks, never()).withLock(anyLong(), any());
     }
 
     @Test
     void confirmRequest_whenFindUserEmpty_thenNotFoundExceptionThrown() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(bookingRepository.findItemIdById(booking.getId())).thenReturn(Optional.of(item.getId()));
+        when(bookingRepository.approveIfWaiting(anyLong(), anyLong())).thenReturn(0);
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.confirmRequest(user.getId(), booking.getId(), true));
         assertEquals("User with 1 id not found.", e.getMessage());
@@ -119,8 +167,10 @@ class BookingServiceImlTest {
 
     @Test
     void confirmRequest_whenRefusedAccess_thenNotFoundExceptionThrown() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findItemIdById(booking.getId())).thenReturn(Optional.of(item.getId()));
+        when(bookingRepository.approveIfWaiting(anyLong(), anyLong())).thenReturn(0);
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.confirmRequest(2L, booking.getId(), true));
         assertEquals("Refused access.", e.getMessage());
@@ -128,44 +178,136 @@ class BookingServiceImlTest {
 
     @Test
     void confirmRequest_whenBookingApproved_thenValidationExceptionThrown() {
+        when(bookingRepository.findItemIdById(booking.getId())).thenReturn(Optional.of(item.getId()));
         item.setOwner(User.builder().id(2L).build());
         booking.setStatus(BookingStatus.APPROVED);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.rejectIfWaiting(anyLong(), anyLong())).thenReturn(0);
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
 
-        ValidationException e = assertThrows(ValidationException.class, () -> bookingService.confirmRequest(2L, booking.getId(), true));
+        ValidationException e = assertThrows(ValidationException.class, () -> bookingService.confirmRequest(2L, booking.getId(), false));
         assertEquals("Booking has APPROVED already.", e.getMessage());
+        verify(bookingAvailabilityIndex, never()).remove(any());
     }
 
     @Test
-    void confirmRequest_whenApproved_thenReturnBooking() {
-        item.setOwner(User.builder().id(2L).build());
-        booking.setStatus(BookingStatus.WAITING);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+    void confirmRequest_whenApproved_thenReturnBookingWithoutLoadingEntity() {
+        when(bookingRepository.findItemIdById(booking.getId())).thenReturn(Optional.of(item.getId()));
+        booking.setStatus(BookingStatus.APPROVED);
+        when(bookingRepository.approveIfWaiting(booking.getId(), 2L)).thenReturn(1);
+        when(bookingRepository.findViewById(booking.getId())).thenReturn(Optional.of(view(booking)));
 
-        Booking actualBooking = bookingService.confirmRequest(2L, booking.getId(), true);
+        BookingView actualBooking = bookingService.confirmRequest(2L, booking.getId(), true);
 
         assertEquals(booking.getId(), actualBooking.getId());
         assertEquals(BookingStatus.APPROVED, actualBooking.getStatus());
+        verify(bookingRepository, never()).findWithItemAndBookerById(anyLong());
+        verify(bookingRepository, never()).rejectIfWaiting(anyLong(), anyLong());
+        verify(bookingAvailabilityIndex, never()).remove(any());
+        verify(bookingCounters).decided(user.getId(), 2L, BookingStatus.APPROVED);
+        verify(itemLocks).withLock(eq(item.getId()), any());
     }
 
     @Test
-    void confirmRequest_whenRejected_thenReturnBooking() {
+    void confirmRequest_whenApprovalOverlapsApprovedBooking_thenValidationExceptionThrown() {
+        when(bookingRepository.findItemIdById(booking.getId())).thenReturn(Optional.of(item.getId()));
         item.setOwner(User.builder().id(2L).build());
         booking.setStatus(BookingStatus.WAITING);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.approveIfWaiting(booking.getId(), 2L)).thenReturn(0);
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> bookingService.confirmRequest(2L, booking.getId(), true));
+        assertEquals("Booking overlaps an approved booking.", e.getMessage());
+    }
 
-        Booking actualBooking = bookingService.confirmRequest(2L, booking.getId(), false);
+    @Test
+    void confirmRequest_whenRejected_thenReturnBookingAndReleaseDates() {
+        when(bookingRepository.findItemIdById(booking.getId())).thenReturn(Optional.of(item.getId()));
+        booking.setStatus(BookingStatus.REJECTED);
+        when(bookingRepository.rejectIfWaiting(booking.getId(), 2L)).thenReturn(1);
+        BookingView rejected = view(booking);
+        when(bookingRepository.findViewById(booking.getId())).thenReturn(Optional.of(rejected));
+
+        BookingView actualBooking = bookingService.confirmRequest(2L, booking.getId(), false);
 
         assertEquals(booking.getId(), actualBooking.getId());
         assertEquals(BookingStatus.REJECTED, actualBooking.getStatus());
+        verify(bookingRepository, never()).approveIfWaiting(anyLong(), anyLong());
+        verify(bookingAvailabilityIndex).remove(rejected);
+        verify(bookingCounters).decided(user.getId(), 2L, BookingStatus.REJECTED);
+    }
+
+    @Test
+    void confirmRequests_whenTooManyIds_thenValidationExceptionThrown() {
+        List<Long> ids = LongStream.rangeClosed(1, 101).boxed().collect(Collectors.toList());
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> bookingService.confirmRequests(2L, ids, true));
+        assertEquals("At most 100 bookings can be decided at once.", e.getMessage());
+
+        verify(bookingRepository, never()).findAllByOwnerAndIdIn(anyLong(), any());
+    }
+
+    @Test
+    void confirmRequests_whenMixedBookings_thenDecideWaitingOnesWithOneUpdate() {
+        BookingView approved = view(new Booking(2L, booking.getStart(), booking.getEnd(), item, user,
+                BookingStatus.APPROVED, null));
+        BookingView waiting = view(new Booking(3L, booking.getStart().plusDays(1), booking.getEnd().plusDays(1),
+                item, user, BookingStatus.WAITING, null));
+        when(userCache.find(2L)).thenReturn(Optional.of(user));
+        when(bookingRepository.findAllByOwnerAndIdIn(eq(2L), any())).thenReturn(List.of(approved, waiting));
+        when(bookingRepository.rejectAllIfWaiting(Set.of(3L), 2L)).thenReturn(1);
+
+        List<BookingOutcomeDto> outcomes = bookingService.confirmRequests(2L, List.of(3L, 2L, 9L, 3L), false);
+
+        assertEquals(List.of(new BookingOutcomeDto(3L, BookingStatus.REJECTED, null),
+                new BookingOutcomeDto(2L, BookingStatus.APPROVED, "Booking has APPROVED already."),
+                new BookingOutcomeDto(9L, null, "Booking with 9 id not found.")), outcomes);
+        verify(bookingRepository, times(1)).findAllByOwnerAndIdIn(eq(2L), any());
+        verify(bookingAvailabilityIndex).remove(waiting);
+        verify(bookingCounters, times(1)).decided(user.getId(), 2L, BookingStatus.REJECTED);
+    }
+
+    @Test
+    void confirmRequests_whenApprovalsOverlapEachOther_thenApproveOnlyTheEarliest() {
+        BookingView first = view(new Booking(2L, booking.getStart(), booking.getEnd(), item, user,
+                BookingStatus.WAITING, null));
+        BookingView second = view(new Booking(3L, booking.getStart().plusMinutes(30),
+                booking.getEnd().plusMinutes(30), item, user, BookingStatus.WAITING, null));
+        when(userCache.find(2L)).thenReturn(Optional.of(user));
+        when(bookingRepository.findItemIdsByIdIn(any())).thenReturn(List.of(item.getId()));
+        when(bookingRepository.findAllByOwnerAndIdIn(eq(2L), any())).thenReturn(List.of(second, first));
+        when(bookingRepository.approveAllIfWaiting(Set.of(2L), 2L)).thenReturn(1);
+
+        List<BookingOutcomeDto> outcomes = bookingService.confirmRequests(2L, List.of(3L, 2L), true);
+
+        assertEquals(List.of(new BookingOutcomeDto(3L, BookingStatus.WAITING, "Booking overlaps an approved booking."),
+                new BookingOutcomeDto(2L, BookingStatus.APPROVED, null)), outcomes);
+        verify(bookingAvailabilityIndex, never()).remove(any());
+        verify(itemLocks).withLocks(eq(List.of(item.getId())), any());
+    }
+
+    @Test
+    void confirmRequests_whenConcurrentDecisionWins_thenReportCurrentStatus() {
+        BookingView waiting = view(new Booking(2L, booking.getStart(), booking.getEnd(), item, user,
+                BookingStatus.WAITING, null));
+        BookingView rejected = view(new Booking(2L, booking.getStart(), booking.getEnd(), item, user,
+                BookingStatus.REJECTED, null));
+        when(userCache.find(2L)).thenReturn(Optional.of(user));
+        when(bookingRepository.findAllByOwnerAndIdIn(eq(2L), any())).thenReturn(List.of(waiting), List.of(rejected));
+        when(bookingRepository.approveAllIfWaiting(Set.of(2L), 2L)).thenReturn(0);
+
+        List<BookingOutcomeDto> outcomes = bookingService.confirmRequests(2L, List.of(2L), true);
+
+        assertEquals(List.of(new BookingOutcomeDto(2L, BookingStatus.REJECTED, "Booking has REJECTED already.")),
+                outcomes);
     }
 
     @Test
     void getById_whenFindBookingEmpty_thenNotFoundExceptionThrown() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.getById(user.getId(), booking.getId()));
         assertEquals("Booking with 1 id not found.", e.getMessage());
@@ -173,8 +315,8 @@ class BookingServiceImlTest {
 
     @Test
     void getById_whenFindUserEmpty_thenNotFoundExceptionThrown() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.getById(user.getId(), booking.getId()));
         assertEquals("User with 1 id not found.", e.getMessage());
@@ -182,8 +324,8 @@ class BookingServiceImlTest {
 
     @Test
     void getById_whenRefusedAccess_thenNotFoundExceptionThrown() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.getById(2L, booking.getId()));
         assertEquals("Refused access. User or Owner don't match.", e.getMessage());
@@ -192,8 +334,8 @@ class BookingServiceImlTest {
     @Test
     void getById_whenInvoked_thenReturnBooking() {
         item.setOwner(User.builder().id(2L).build());
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findWithItemAndBookerById(anyLong())).thenReturn(Optional.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
 
         Booking actualBooking = bookingService.getById(2L, booking.getId());
 
@@ -202,7 +344,7 @@ class BookingServiceImlTest {
 
     @Test
     void getAllByUser_whenFindUserEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.getAllByUser(user.getId(), State.ALL, 0, 1));
         assertEquals("User with 1 id not found.", e.getMessage());
@@ -210,89 +352,89 @@ class BookingServiceImlTest {
 
     @Test
     void getAllByUser_whenInvoked_thenReturnEmptyCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(bookingRepository.findAllByBooker(any(), any())).thenReturn(List.of());
 
-        List<Booking> actualBookings = bookingService.getAllByUser(user.getId(), State.ALL, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByUser(user.getId(), State.ALL, 0, 1);
 
         assertTrue(actualBookings.isEmpty());
     }
 
     @Test
     void getAllByUser_whenInvoked_thenReturnCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBooker(any(), any())).thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findAllByBooker(any(), any())).thenReturn(List.of(bookingView));
 
-        List<Booking> actualBookings = bookingService.getAllByUser(user.getId(), State.ALL, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByUser(user.getId(), State.ALL, 0, 1);
 
         assertFalse(actualBookings.isEmpty());
         assertEquals(1, actualBookings.size());
-        assertEquals(List.of(booking), actualBookings);
+        assertEquals(List.of(bookingView), actualBookings);
     }
 
     @Test
     void getAllByUser_whenStatePast_thenReturnCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerAndEndBefore(any(), any(), any())).thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findPastByBooker(any(), any(), any())).thenReturn(List.of(bookingView));
 
-        List<Booking> actualBookings = bookingService.getAllByUser(user.getId(), State.PAST, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByUser(user.getId(), State.PAST, 0, 1);
 
         assertFalse(actualBookings.isEmpty());
         assertEquals(1, actualBookings.size());
-        assertEquals(List.of(booking), actualBookings);
+        assertEquals(List.of(bookingView), actualBookings);
     }
 
     @Test
     void getAllByUser_whenStateFuture_thenReturnCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerAndStartAfter(any(), any(), any())).thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findFutureByBooker(any(), any(), any())).thenReturn(List.of(bookingView));
 
-        List<Booking> actualBookings = bookingService.getAllByUser(user.getId(), State.FUTURE, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByUser(user.getId(), State.FUTURE, 0, 1);
 
         assertFalse(actualBookings.isEmpty());
         assertEquals(1, actualBookings.size());
-        assertEquals(List.of(booking), actualBookings);
+        assertEquals(List.of(bookingView), actualBookings);
     }
 
     @Test
     void getAllByUser_whenStateCurrent_thenReturnCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerAndStartBeforeAndEndAfter(any(), any(), any(), any())).thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findCurrentByBooker(any(), any(), any())).thenReturn(List.of(bookingView));
 
-        List<Booking> actualBookings = bookingService.getAllByUser(user.getId(), State.CURRENT, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByUser(user.getId(), State.CURRENT, 0, 1);
 
         assertFalse(actualBookings.isEmpty());
         assertEquals(1, actualBookings.size());
-        assertEquals(List.of(booking), actualBookings);
+        assertEquals(List.of(bookingView), actualBookings);
     }
 
     @Test
     void getAllByUser_whenStateWaiting_thenReturnCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerAndStatusEquals(any(), any(), any())).thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findAllByBookerAndStatus(any(), any(), any())).thenReturn(List.of(bookingView));
 
-        List<Booking> actualBookings = bookingService.getAllByUser(user.getId(), State.WAITING, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByUser(user.getId(), State.WAITING, 0, 1);
 
         assertFalse(actualBookings.isEmpty());
         assertEquals(1, actualBookings.size());
-        assertEquals(List.of(booking), actualBookings);
+        assertEquals(List.of(bookingView), actualBookings);
     }
 
     @Test
     void getAllByUser_whenStateRejected_thenReturnCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerAndStatusEquals(any(), any(), any())).thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findAllByBookerAndStatus(any(), any(), any())).thenReturn(List.of(bookingView));
 
-        List<Booking> actualBookings = bookingService.getAllByUser(user.getId(), State.REJECTED, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByUser(user.getId(), State.REJECTED, 0, 1);
 
         assertFalse(actualBookings.isEmpty());
         assertEquals(1, actualBookings.size());
-        assertEquals(List.of(booking), actualBookings);
+        assertEquals(List.of(bookingView), actualBookings);
     }
 
     @Test
     void getAllByOwner_whenFindUserEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.getAllByOwner(user.getId(), State.ALL, 0, 1));
         assertEquals("User with 1 id not found.", e.getMessage());
@@ -300,83 +442,153 @@ class BookingServiceImlTest {
 
     @Test
     void getAllByOwner_whenInvoked_thenReturnEmptyCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerId(any(), any())).thenReturn(List.of());
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findAllByOwner(any(), any())).thenReturn(List.of());
 
-        List<Booking> actualBookings = bookingService.getAllByOwner(user.getId(), State.ALL, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByOwner(user.getId(), State.ALL, 0, 1);
 
         assertTrue(actualBookings.isEmpty());
     }
 
     @Test
     void getAllByOwner_whenInvoked_thenReturnCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerId(anyLong(), any())).thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findAllByOwner(anyLong(), any())).thenReturn(List.of(bookingView));
 
-        List<Booking> actualBookings = bookingService.getAllByOwner(user.getId(), State.ALL, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByOwner(user.getId(), State.ALL, 0, 1);
 
         assertFalse(actualBookings.isEmpty());
         assertEquals(1, actualBookings.size());
-        assertEquals(List.of(booking), actualBookings);
+        assertEquals(List.of(bookingView), actualBookings);
     }
 
     @Test
     void getAllByOwner_whenStatePast_thenReturnCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerIdAndEndBefore(anyLong(), any(), any())).thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findPastByOwner(anyLong(), any(), any())).thenReturn(List.of(bookingView));
 
-        List<Booking> actualBookings = bookingService.getAllByOwner(user.getId(), State.PAST, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByOwner(user.getId(), State.PAST, 0, 1);
 
         assertFalse(actualBookings.isEmpty());
         assertEquals(1, actualBookings.size());
-        assertEquals(List.of(booking), actualBookings);
+        assertEquals(List.of(bookingView), actualBookings);
     }
 
     @Test
     void getAllByOwner_whenStateFuture_thenReturnCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerIdAndStartAfter(anyLong(), any(), any())).thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findFutureByOwner(anyLong(), any(), any())).thenReturn(List.of(bookingView));
 
-        List<Booking> actualBookings = bookingService.getAllByOwner(user.getId(), State.FUTURE, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByOwner(user.getId(), State.FUTURE, 0, 1);
 
         assertFalse(actualBookings.isEmpty());
         assertEquals(1, actualBookings.size());
-        assertEquals(List.of(booking), actualBookings);
+        assertEquals(List.of(bookingView), actualBookings);
     }
 
     @Test
     void getAllByOwner_whenStateCurrent_thenReturnCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(anyLong(), any(), any(), any())).thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findCurrentByOwner(anyLong(), any(), any())).thenReturn(List.of(bookingView));
 
-        List<Booking> actualBookings = bookingService.getAllByOwner(user.getId(), State.CURRENT, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByOwner(user.getId(), State.CURRENT, 0, 1);
 
         assertFalse(actualBookings.isEmpty());
         assertEquals(1, actualBookings.size());
-        assertEquals(List.of(booking), actualBookings);
+        assertEquals(List.of(bookingView), actualBookings);
     }
 
     @Test
     void getAllByOwner_whenStateWaiting_thenReturnCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerIdAndStatusEquals(anyLong(), any(), any())).thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findAllByOwnerAndStatus(anyLong(), any(), any())).thenReturn(List.of(bookingView));
 
-        List<Booking> actualBookings = bookingService.getAllByOwner(user.getId(), State.WAITING, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByOwner(user.getId(), State.WAITING, 0, 1);
 
         assertFalse(actualBookings.isEmpty());
         assertEquals(1, actualBookings.size());
-        assertEquals(List.of(booking), actualBookings);
+        assertEquals(List.of(bookingView), actualBookings);
     }
 
     @Test
     void getAllByOwner_whenStateRejected_thenReturnCollectionBookings() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerIdAndStatusEquals(anyLong(), any(), any())).thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findAllByOwnerAndStatus(anyLong(), any(), any())).thenReturn(List.of(bookingView));
 
-        List<Booking> actualBookings = bookingService.getAllByOwner(user.getId(), State.REJECTED, 0, 1);
+        List<BookingView> actualBookings = bookingService.getAllByOwner(user.getId(), State.REJECTED, 0, 1);
 
         assertFalse(actualBookings.isEmpty());
         assertEquals(1, actualBookings.size());
-        assertEquals(List.of(booking), actualBookings);
+        assertEquals(List.of(bookingView), actualBookings);
+    }
+
+    @Test
+    void getAllByUser_whenCursorNull_thenReturnFirstPage() {
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findAllByBooker(any(), any())).thenReturn(List.of(bookingView));
+
+        List<BookingView> actualBookings = bookingService.getAllByUser(user.getId(), State.ALL, (PageCursor) null, 1);
+
+        assertEquals(List.of(bookingView), actualBookings);
+    }
+
+    @Test
+    void getAllByUser_whenCursorGiven_thenSeekAfterCursor() {
+        PageCursor cursor = PageCursor.of(booking.getStart(), booking.getId());
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findAllByBookerAndStatusAfter(anyLong(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(bookingView));
+
+        List<BookingView> actualBookings = bookingService.getAllByUser(user.getId(), State.WAITING, cursor, 1);
+
+        assertEquals(List.of(bookingView), actualBookings);
+        verify(bookingRepository).findAllByBookerAndStatusAfter(user.getId(), BookingStatus.WAITING,
+                booking.getStart(), booking.getId(), PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "start", "id")));
+    }
+
+    @Test
+    void getAllByOwner_whenCursorGiven_thenSeekAfterCursor() {
+        PageCursor cursor = PageCursor.of(booking.getStart(), booking.getId());
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findPastByOwnerAfter(anyLong(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(bookingView));
+
+        List<BookingView> actualBookings = bookingService.getAllByOwner(user.getId(), State.PAST, cursor, 1);
+
+        assertEquals(List.of(bookingView), actualBookings);
+    }
+
+    @Test
+    void getAllByOwner_whenCursorGivenAndUserNotFound_thenNotFoundExceptionThrown() {
+        PageCursor cursor = PageCursor.of(booking.getStart(), booking.getId());
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.getAllByOwner(user.getId(), State.ALL, cursor, 1));
+        verify(bookingRepository, never()).findAllByOwnerAfter(anyLong(), any(), anyLong(), any());
+    }
+
+    @Test
+    void countByOwner_whenFindUserEmpty_thenNotFoundExceptionThrown() {
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
+
+        NotFoundException e = assertThrows(NotFoundException.class, () -> bookingService.countByOwner(2L));
+        assertEquals("User with 2 id not found.", e.getMessage());
+
+        verify(bookingCounters, never()).countByOwner(anyLong());
+    }
+
+    @Test
+    void countByUser_whenInvoked_thenReturnCounters() {
+        Map<State, Long> counts = Map.of(State.ALL, 3L, State.WAITING, 1L);
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingCounters.countByBooker(user.getId())).thenReturn(counts);
+
+        assertEquals(counts, bookingService.countByUser(user.getId()));
+    }
+
+    private static BookingView view(Booking booking) {
+        return new BookingView(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getItem().getId(), booking.getItem().getName(), booking.getBooker().getId(),
+                booking.getBooker().getName());
     }
-}
\ No newline at end of file
+}
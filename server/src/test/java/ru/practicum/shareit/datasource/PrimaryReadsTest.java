@@ -0,0 +1,100 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary-reads",
+        "spring.datasource.hikari.maximum-pool-size=" + PrimaryReadsTest.POOL_SIZE,
+        "spring.datasource.hikari.connection-timeout=1000",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+class PrimaryReadsTest {
+    static final int POOL_SIZE = 2;
+    static int CALLERS = POOL_SIZE * 4;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    UserCache userCache;
+    @Autowired
+    BookingAvailabilityIndex bookingAvailabilityIndex;
+    @Autowired
+    BookingCounters bookingCounters;
+    List<User> users = new ArrayList<>();
+    List<Item> items = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < CALLERS; i++) {
+            User user = userRepository.save(User.builder().name("user" + i).email("user" + i + "@pool.ru").build());
+            users.add(user);
+            items.add(itemRepository.save(Item.builder().name("drill").description("drill").available(true)
+                    .owner(user).build()));
+        }
+    }
+
+    @Test
+    void get_whenMoreColdLoadsThanPoolSize_thenLoadInCallersTransaction() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        CyclicBarrier allConnectionsTaken = new CyclicBarrier(POOL_SIZE);
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        for (int i = 0; i < CALLERS; i++) {
+            User user = users.get(i);
+            Item item = items.get(i);
+            results.add(callers.submit(() -> transactionTemplate.execute(status -> {
+                itemRepository.findById(item.getId()).orElseThrow();
+                await(allConnectionsTaken);
+                userCache.find(user.getId()).orElseThrow();
+                bookingCounters.countByOwner(user.getId());
+                return bookingAvailabilityIndex.isFree(item.getId(), start, start.plusHours(1));
+            })));
+        }
+
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get(10, TimeUnit.SECONDS));
+        }
+        callers.shutdown();
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "shareit.datasource.replica.url=jdbc:h2:mem:routing-replica",
+        "shareit.datasource.replica.username=test",
+        "shareit.datasource.replica.password=test",
+        "shareit.datasource.read-your-writes-window=1m",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@AutoConfigureMockMvc
+class ReadWriteRoutingTest {
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primaryDataSource;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    BookingAvailabilityIndex bookingAvailabilityIndex;
+    @Autowired
+    UserCache userCache;
+    @Autowired
+    MeterRegistry meterRegistry;
+    JdbcTemplate replica;
+    User owner;
+    User reader;
+
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate(replicaDataSource);
+        owner = userRepository.save(User.builder().name("owner").email("owner@routing.ru").build());
+        reader = userRepository.save(User.builder().name("reader").email("reader@routing.ru").build());
+        for (User user : new User[]{owner, reader}) {
+            replica.update("insert into users (id, name, email) values (?, ?, ?)", user.getId(), user.getName(),
+                    user.getEmail());
+        }
+    }
+
+    @Test
+    void readOnlyTransaction_whenNoWriteBefore_thenServedByReplica() throws Exception {
+        replica.update("delete from users where id = ?", reader.getId());
+
+        mvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        assertEquals(2, new JdbcTemplate(primaryDataSource).queryForObject("select count(*) from users",
+                Integer.class));
+        assertEquals(Long.valueOf(1), userRepository.count());
+        assertEquals(Long.valueOf(2), transactionTemplate.execute(status -> userRepository.count()));
+    }
+
+    @Test
+    void readOnlyTransaction_whenUserWroteRecently_thenPinnedToPrimary() throws Exception {
+        mvc.perform(post("/items").header("X-Sharer-User-Id", owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"drill\", \"description\": \"drill\", \"available\": true}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/items").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        mvc.perform(get("/items").header("X-Sharer-User-Id", reader.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        assertEquals(0, replica.queryForObject("select count(*) from items", Integer.class));
+    }
+
+    @Test
+    void availability_whenReplicaLagsBehindBooking_thenIndexNotFilledFromReplica() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        Item item = itemRepository.save(Item.builder().name("drill").description("drill").available(true)
+                .owner(owner).build());
+        replica.update("insert into items (id, name, description, is_available, id_owner) values (?, ?, ?, ?, ?)",
+                item.getId(), item.getName(), item.getDescription(), true, owner.getId());
+        bookingRepository.save(Booking.builder().start(start).end(start.plusHours(2)).item(item).booker(reader)
+                .status(BookingStatus.APPROVED).build());
+
+        userCache.find(reader.getId()).orElseThrow();
+
+        mvc.perform(get("/items/{itemId}/availability", item.getId()).header("X-Sharer-User-Id", reader.getId())
+                        .param("start", start.toString())
+                        .param("end", start.plusHours(2).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.free").value(true));
+        assertEquals(0, replica.queryForObject("select count(*) from bookings", Integer.class));
+        assertFalse(bookingAvailabilityIndex.isFree(item.getId(), start.plusHours(1), start.plusHours(3)));
+    }
+
+    @Test
+    void availability_whenLoadedFirstInReadOnlyTransaction_thenLoadedFromPrimary() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        Item item = itemRepository.save(Item.builder().name("drill").description("drill").available(true)
+                .owner(owner).build());
+        bookingRepository.save(Booking.builder().start(start).end(start.plusHours(2)).item(item).booker(reader)
+                .status(BookingStatus.APPROVED).build());
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        Boolean free = readOnly.execute(status -> bookingAvailabilityIndex.isFree(item.getId(), start,
+                start.plusHours(2)));
+
+        assertEquals(Boolean.FALSE, free);
+        assertFalse(ReadWriteRoutingDataSource.isBoundToReplica());
+    }
+
+    @Test
+    void pools_whenRouted_thenPublishMetricsPerRoute() {
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica").gauge());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        replica.update("delete from items");
+        replica.update("delete from users");
+    }
+
+    @TestConfiguration
+    static class ReplicaSchema {
+        @Bean
+        InitializingBean replicaMigration(@Qualifier("replicaDataSource") DataSource replicaDataSource) {
+            return () -> Flyway.configure().dataSource(replicaDataSource).load().migrate();
+        }
+    }
+}
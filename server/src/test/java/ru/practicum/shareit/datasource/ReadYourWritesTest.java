@@ -0,0 +1,45 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadYourWritesTest {
+    final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofMillis(200));
+
+    @Test
+    void isCurrentUserPinned_whenUserWroteWithinWindow_thenTrueOnlyForThatUser() {
+        readYourWrites.bind(1L);
+        readYourWrites.pinCurrentUser();
+
+        assertTrue(readYourWrites.isCurrentUserPinned());
+        readYourWrites.bind(2L);
+        assertFalse(readYourWrites.isCurrentUserPinned());
+    }
+
+    @Test
+    void isCurrentUserPinned_whenWindowPassed_thenFalse() throws InterruptedException {
+        readYourWrites.bind(1L);
+        readYourWrites.pinCurrentUser();
+
+        Thread.sleep(300);
+
+        assertFalse(readYourWrites.isCurrentUserPinned());
+    }
+
+    @Test
+    void isCurrentUserPinned_whenNoUserBound_thenFalse() {
+        readYourWrites.pinCurrentUser();
+
+        assertFalse(readYourWrites.isCurrentUserPinned());
+    }
+
+    @AfterEach
+    void tearDown() {
+        readYourWrites.unbind();
+    }
+}
@@ -0,0 +1,275 @@
+package ru.practicum.shareit.etag;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.emptyString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+    @Autowired
+    CommentRepository commentRepository;
+    @SpyBean
+    ItemService itemService;
+    User user;
+    User booker;
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder().name("user").email("user@etag.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@etag.ru").build());
+        item = itemRepository.save(Item.builder().name("drill").description("drill").available(true).owner(user)
+                .build());
+    }
+
+    @Test
+    void getUser_whenETagMatches_thenNotModifiedWithoutBody() throws Exception {
+        String eTag = mvc.perform(get("/users/{userId}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/users/{userId}", user.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(emptyString()));
+    }
+
+    @Test
+    void getUser_whenChangedSinceETag_thenOkWithNewETag() throws Exception {
+        String eTag = mvc.perform(get("/users/{userId}", user.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(patch("/users/{userId}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"renamed\"}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/users/{userId}", user.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    void getItem_whenETagMatches_thenNotModifiedWithoutLoadingItem() throws Exception {
+        String eTag = getETag("/items/{itemId}", item.getId(), user);
+        clearInvocations(itemService);
+
+        mvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(emptyString()));
+        verify(itemService, never()).getById(any(), any());
+    }
+
+    @Test
+    void getItem_whenUpdatedSinceETag_thenOkWithNewETag() throws Exception {
+        String eTag = getETag("/items/{itemId}", item.getId(), user);
+        mvc.perform(patch("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"hammer\"}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    void getItem_whenBookingApproved_thenNewETagForOwnerOnly() throws Exception {
+        String ownerETag = getETag("/items/{itemId}", item.getId(), user);
+        String bookerETag = getETag("/items/{itemId}", item.getId(), booker);
+        LocalDateTime start = LocalDateTime.now().minusDays(2);
+        bookingRepository.save(Booking.builder().start(start).end(start.plusDays(1)).item(item).booker(booker)
+                .status(BookingStatus.APPROVED).build());
+
+        mvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, ownerETag))
+                .andExpect(status().isOk());
+        mvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, bookerETag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getItem_whenBookerDeletedAndSlotBookedAgain_thenOkWithNewETag() throws Exception {
+        User other = userRepository.save(User.builder().name("other").email("other@etag.ru").build());
+        LocalDateTime start = LocalDateTime.now().minusDays(2);
+        bookingRepository.save(Booking.builder().start(start).end(start.plusDays(1)).item(item).booker(booker)
+                .status(BookingStatus.APPROVED).build());
+        String eTag = getETag("/items/{itemId}", item.getId(), user);
+        mvc.perform(delete("/users/{userId}", booker.getId())).andExpect(status().isOk());
+        bookingRepository.save(Booking.builder().start(start).end(start.plusDays(1)).item(item).booker(other)
+                .status(BookingStatus.APPROVED).build());
+
+        mvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    void getItem_whenCommentAuthorRenamed_thenOkWithNewETag() throws Exception {
+        commentRepository.save(Comment.builder().text("good").item(item).author(booker).build());
+        String eTag = getETag("/items/{itemId}", item.getId(), user);
+        mvc.perform(patch("/users/{userId}", booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"renamed\"}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    void getBooking_whenBookerRenamed_thenOkWithNewETag() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = bookingRepository.save(Booking.builder().start(start).end(start.plusDays(1)).item(item)
+                .booker(booker).status(BookingStatus.WAITING).build());
+        String eTag = getETag("/bookings/{bookingId}", booking.getId(), user);
+        mvc.perform(patch("/users/{userId}", booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"renamed\"}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/bookings/{bookingId}", booking.getId())
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    void getBooking_whenApprovedSinceETag_thenOkWithNewETag() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = bookingRepository.save(Booking.builder().start(start).end(start.plusDays(1)).item(item)
+                .booker(booker).status(BookingStatus.WAITING).build());
+        String eTag = getETag("/bookings/{bookingId}", booking.getId(), booker);
+        mvc.perform(patch("/bookings/{bookingId}?approved=true", booking.getId())
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/bookings/{bookingId}", booking.getId())
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    void getBooking_whenNeitherBookerNorOwner_thenNotFoundEvenWithETag() throws Exception {
+        User stranger = userRepository.save(User.builder().name("stranger").email("stranger@etag.ru").build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = bookingRepository.save(Booking.builder().start(start).end(start.plusDays(1)).item(item)
+                .booker(booker).status(BookingStatus.WAITING).build());
+        String eTag = getETag("/bookings/{bookingId}", booking.getId(), booker);
+
+        mvc.perform(get("/bookings/{bookingId}", booking.getId())
+                        .header("X-Sharer-User-Id", stranger.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getRequest_whenAnsweredSinceETag_thenOkWithNewETag() throws Exception {
+        ItemRequest request = itemRequestRepository.save(ItemRequest.builder().description("need a saw")
+                .requestor(booker).build());
+        String eTag = getETag("/requests/{requestId}", request.getId(), user);
+        mvc.perform(get("/requests/{requestId}", request.getId())
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        itemRepository.save(Item.builder().name("saw").description("saw").available(true).owner(user)
+                .requester(request.getId()).build());
+
+        mvc.perform(get("/requests/{requestId}", request.getId())
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    void getRequest_whenAnsweringItemOwnerDeletedAndAnsweredAgain_thenOkWithNewETag() throws Exception {
+        User other = userRepository.save(User.builder().name("other").email("other@etag.ru").build());
+        ItemRequest request = itemRequestRepository.save(ItemRequest.builder().description("need a saw")
+                .requestor(booker).build());
+        itemRepository.save(Item.builder().name("saw").description("saw").available(true).owner(other)
+                .requester(request.getId()).build());
+        String eTag = getETag("/requests/{requestId}", request.getId(), booker);
+        mvc.perform(delete("/users/{userId}", other.getId())).andExpect(status().isOk());
+        itemRepository.save(Item.builder().name("saw").description("saw").available(true).owner(user)
+                .requester(request.getId()).build());
+
+        mvc.perform(get("/requests/{requestId}", request.getId())
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    private String getETag(String path, Long id, User viewer) throws Exception {
+        return mvc.perform(get(path, id).header("X-Sharer-User-Id", viewer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+}
@@ -13,22 +13,29 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.availability.TimeWindow;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentShortDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportDto;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,13 +50,15 @@ class ItemControllerTest {
     ObjectMapper mapper;
     @MockBean
     ItemService itemService;
+    @MockBean
+    ItemImportService itemImportService;
     final ItemDto itemDto = ItemDto.builder()
             .name("test")
             .description("test")
             .available(true)
             .build();
-    final Item item = new Item(1L, "test", "test", true, new User(), null, null,
-            null, null);
+    final Item item = new Item(1L, "test", "test", true, new User(), null, null);
+    final ItemView itemView = ItemView.of(item);
 
     @SneakyThrows
     @Test
@@ -75,11 +84,60 @@ class ItemControllerTest {
         verify(itemService).create(any(), anyLong());
     }
 
+    @SneakyThrows
+    @Test
+    void getAvailability_whenInvoked_thenReturnResponseStatusOkWithFreeWindowsInBody() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        LocalDateTime end = start.plusHours(6);
+        when(itemService.getFreeWindows(1L, 1L, start, end))
+                .thenReturn(List.of(new TimeWindow(start, start.plusHours(2))));
+
+        mvc.perform(MockMvcRequestBuilders.get("/items/1/availability")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("start", "2030-01-01T12:00:00")
+                        .param("end", "2030-01-01T18:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId").value(1L))
+                .andExpect(jsonPath("$.free").value(false))
+                .andExpect(jsonPath("$.freeWindows[0].start").value("2030-01-01T12:00:00"))
+                .andExpect(jsonPath("$.freeWindows[0].end").value("2030-01-01T14:00:00"));
+    }
+
+    @SneakyThrows
+    @Test
+    void importItems_whenNdjsonPosted_thenReturnResponseStatusOkWithFailuresInBody() {
+        when(itemImportService.importItems(eq(1L), any()))
+                .thenReturn(new ItemImportDto(1, List.of(new ItemImportDto.Failure(1, "Name must not be blank."))));
+
+        mvc.perform(MockMvcRequestBuilders.post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(itemDto) + "\n{\"name\": \"\"}\n")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failures[0].index").value(1))
+                .andExpect(jsonPath("$.failures[0].error").value("Name must not be blank."));
+
+        verify(itemImportService).importItems(eq(1L), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void importItems_whenUnsupportedContentType_thenReturnResponseStatusUnsupportedMediaType() {
+        mvc.perform(MockMvcRequestBuilders.post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content("name,description")
+                        .contentType(MediaType.TEXT_PLAIN))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verify(itemImportService, never()).importItems(anyLong(), any());
+    }
+
     @SneakyThrows
     @Test
     void update_whenInvoked_thenReturnResponseStatusOkWithItemInBody() {
-        Item updatedItem = new Item(1L, "update", "update", false, new User(), null,
-                new Booking(), new Booking(), null);
+        Item updatedItem = new Item(1L, "update", "update", false, new User(), null, null);
         when(itemService.update(any(), anyLong(), anyLong())).thenReturn(updatedItem);
 
         mvc.perform(MockMvcRequestBuilders.patch("/items/{itemId}", 1)
@@ -118,7 +176,7 @@ class ItemControllerTest {
     @SneakyThrows
     @Test
     void getById_whenInvoked_thenReturnResponseStatusOkWithItemInBody() {
-        when(itemService.getById(anyLong(), anyLong())).thenReturn(item);
+        when(itemService.getById(anyLong(), anyLong())).thenReturn(itemView);
 
         mvc.perform(MockMvcRequestBuilders.get("/items/{itemId}", 1L)
                         .header("X-Sharer-User-Id", 1L)
@@ -152,7 +210,7 @@ class ItemControllerTest {
     @SneakyThrows
     @Test
     void getAll_whenInvoked_thenReturnResponseStatusOkWithCollectionItemsInBody() {
-        when(itemService.getAll(anyLong(), anyInt(), anyInt())).thenReturn(List.of(item));
+        when(itemService.getAll(anyLong(), anyInt(), anyInt())).thenReturn(List.of(itemView));
 
         mvc.perform(MockMvcRequestBuilders.get("/items")
                         .header("X-Sharer-User-Id", 1L)
@@ -187,6 +245,72 @@ class ItemControllerTest {
         verify(itemService).getAll(anyLong(), anyInt(), anyInt());
     }
 
+    @SneakyThrows
+    @Test
+    void getAll_whenFromSizePageFull_thenNextCursorHeaderLeadsToNextPage() {
+        when(itemService.getAll(anyLong(), anyInt(), anyInt())).thenReturn(List.of(itemView));
+        when(itemService.getAll(anyLong(), any(PageCursor.class), anyInt())).thenReturn(List.of());
+
+        String nextCursor = mvc.perform(MockMvcRequestBuilders.get("/items")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(PageCursor.NEXT_CURSOR_HEADER))
+                .andReturn().getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER);
+        mvc.perform(MockMvcRequestBuilders.get("/items")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1")
+                        .param("cursor", nextCursor)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*]").isEmpty())
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+
+        verify(itemService).getAll(1L, 0, 1);
+        verify(itemService).getAll(eq(1L), argThat((PageCursor cursor) -> item.getId().equals(cursor.getId())), eq(1));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAll_whenCursorGivenAndPageNotFull_thenReturnNoNextCursorHeader() {
+        when(itemService.getAll(anyLong(), any(PageCursor.class), anyInt())).thenReturn(List.of(itemView));
+
+        mvc.perform(MockMvcRequestBuilders.get("/items")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", PageCursor.of(0L).encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+
+        verify(itemService).getAll(anyLong(), any(PageCursor.class), eq(10));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAll_whenCursorOfTimeKeyedList_thenReturnResponseStatusBadRequest() {
+        mvc.perform(MockMvcRequestBuilders.get("/items")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", PageCursor.of(LocalDateTime.now(), 5L).encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).getAll(anyLong(), any(PageCursor.class), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAll_whenCursorMalformed_thenReturnResponseStatusBadRequest() {
+        mvc.perform(MockMvcRequestBuilders.get("/items")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "%%%")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).getAll(anyLong(), any(PageCursor.class), anyInt());
+    }
+
     @SneakyThrows
     @Test
     void search_whenInvoked_thenReturnResponseStatusOkWithCollectionItemsInBody() {
@@ -232,4 +356,47 @@ class ItemControllerTest {
 
         verify(itemService).commented(any(), anyLong(), anyLong());
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void getComments_whenPageFull_thenReturnCommentsWithNextCursorHeader() {
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 12, 0);
+        CommentView comment = new CommentView(7L, "test", item.getId(), "author", created);
+        when(itemService.getComments(1L, 1L, null, 1)).thenReturn(List.of(comment));
+
+        mvc.perform(MockMvcRequestBuilders.get("/items/{itemId}/comments", 1L)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(jsonPath("$[0].authorName").value("author"))
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(created, 7L).encode()));
+    }
+
+    @SneakyThrows
+    @Test
+    void getComments_whenSizeOverLimit_thenRequestLimitedPage() {
+        when(itemService.getComments(anyLong(), anyLong(), any(), anyInt())).thenReturn(List.of());
+
+        mvc.perform(MockMvcRequestBuilders.get("/items/{itemId}/comments", 1L)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "100000")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(itemService).getComments(1L, 1L, null, 100);
+    }
+
+    @SneakyThrows
+    @Test
+    void getComments_whenCursorOfIdKeyedList_thenReturnResponseStatusBadRequest() {
+        mvc.perform(MockMvcRequestBuilders.get("/items/{itemId}/comments", 1L)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", PageCursor.of(7L).encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).getComments(anyLong(), anyLong(), any(PageCursor.class), anyInt());
+    }
+}
@@ -8,7 +8,7 @@ import org.springframework.boot.test.json.JacksonTester;
 import org.springframework.boot.test.json.JsonContent;
 
 import java.time.LocalDateTime;
-import java.util.Set;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -23,7 +23,8 @@ class ItemDtoTest {
         ItemDto.BookingDto lastBooking = new ItemDto.BookingDto(1L, LocalDateTime.now(), LocalDateTime.now(), 3L);
         ItemDto.BookingDto nextBooking = new ItemDto.BookingDto(2L, LocalDateTime.now(), LocalDateTime.now(), 3L);
         CommentDto commentDto = new CommentDto(1L, "test", "test", LocalDateTime.now());
-        ItemDto itemDto = new ItemDto(1L, "test", "test", true, 2L, lastBooking, nextBooking, Set.of(commentDto));
+        ItemDto itemDto = new ItemDto(1L, "test", "test", true, 2L, lastBooking, nextBooking, List.of(commentDto),
+                12L);
 
         JsonContent<ItemDto> result = jacksonTester.write(itemDto);
 
@@ -46,5 +47,6 @@ class ItemDtoTest {
         assertThat(result).extractingJsonPathStringValue("$.comments.[0].text").isEqualTo("test");
         assertThat(result).extractingJsonPathStringValue("$.comments.[0].authorName").isEqualTo("test");
         assertThat(result).extractingJsonPathStringValue("$.comments.[0].created").isNotBlank();
+        assertThat(result).extractingJsonPathNumberValue("$.commentCount").isEqualTo(12);
     }
 }
\ No newline at end of file
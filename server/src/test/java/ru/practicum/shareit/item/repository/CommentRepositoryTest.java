@@ -0,0 +1,86 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentPreview;
+import ru.practicum.shareit.item.model.CommentView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+class CommentRepositoryTest {
+    static Pageable PAGE = PageRequest.of(0, 2);
+    @Autowired
+    CommentRepository commentRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    UserRepository userRepository;
+    User author;
+    Item popular;
+    Item quiet;
+    List<Comment> comments;
+
+    @BeforeEach
+    void setUp() {
+        author = userRepository.save(User.builder().name("author").email("author@mail.ru").build());
+        popular = itemRepository.save(Item.builder().name("popular").description("popular").available(true)
+                .owner(author).build());
+        quiet = itemRepository.save(Item.builder().name("quiet").description("quiet").available(true)
+                .owner(author).build());
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 12, 0);
+        comments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            comments.add(commentRepository.save(Comment.builder().text("comment " + i).item(popular).author(author)
+                    .created(created.plusHours(i / 2)).build()));
+        }
+        commentRepository.save(Comment.builder().text("only").item(quiet).author(author).created(created).build());
+    }
+
+    @Test
+    void findNewestByItemIdIn_whenItemHasMoreComments_thenReturnNewestWithTotalPerItem() {
+        List<CommentPreview> rows = commentRepository.findNewestByItemIdIn(List.of(popular.getId(), quiet.getId()),
+                3);
+
+        List<Long> popularIds = rows.stream()
+                .map(CommentPreview::getComment)
+                .filter(comment -> comment.getItemId().equals(popular.getId()))
+                .map(CommentView::getId)
+                .collect(Collectors.toList());
+        assertEquals(List.of(comments.get(4).getId(), comments.get(3).getId(), comments.get(2).getId()), popularIds);
+        assertEquals(4, rows.size());
+        assertEquals(5, rows.get(0).getTotal());
+        assertEquals("author", rows.get(0).getComment().getAuthorName());
+        assertEquals(1, rows.get(3).getTotal());
+    }
+
+    @Test
+    void findAllByItemIdAfter_whenPagedByCursor_thenReturnEveryCommentOnceNewestFirst() {
+        List<CommentView> page = commentRepository.findAllByItemId(popular.getId(), PAGE);
+        List<Long> seen = new ArrayList<>();
+        while (!page.isEmpty()) {
+            page.forEach(comment -> seen.add(comment.getId()));
+            CommentView last = page.get(page.size() - 1);
+            page = commentRepository.findAllByItemIdAfter(popular.getId(), last.getCreated(), last.getId(), PAGE);
+        }
+
+        assertEquals(List.of(comments.get(4).getId(), comments.get(3).getId(), comments.get(2).getId(),
+                comments.get(1).getId(), comments.get(0).getId()), seen);
+    }
+}
@@ -6,13 +6,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringRunner;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -24,11 +28,14 @@ class ItemRepositoryTest {
     ItemRepository itemRepository;
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    TestEntityManager entityManager;
+    Item item;
 
     @BeforeEach
     void setUp() {
         User user = userRepository.save(User.builder().id(1L).name("test").email("test@mail.ru").build());
-        itemRepository.save(Item.builder()
+        item = itemRepository.save(Item.builder()
                 .id(1L)
                 .name("test")
                 .description("test")
@@ -43,7 +50,47 @@ class ItemRepositoryTest {
 
         assertFalse(items.isEmpty());
         assertEquals(1, items.size());
-        assertEquals(1L, items.get(0).getId());
+        assertEquals(item.getId(), items.get(0).getId());
+    }
+
+    @Test
+    void search_whenItemUnavailable_thenItemExcludedEvenIfNameMatches() {
+        itemRepository.save(Item.builder()
+                .name("unavailable test")
+                .description("other")
+                .available(false)
+                .owner(userRepository.findAll().get(0))
+                .build());
+
+        List<Item> items = itemRepository.search("test", PageRequest.of(0, 10));
+
+        assertEquals(1, items.size());
+        assertEquals(item.getId(), items.get(0).getId());
+    }
+
+    @Test
+    void findAllByOwner_whenInvoked_thenReturnViewsWithDtoFields() {
+        List<ItemView> items = itemRepository.findAllByOwner(item.getOwner().getId(), PageRequest.of(0, 10));
+
+        assertEquals(1, items.size());
+        assertEquals(item.getId(), items.get(0).getId());
+        assertEquals(item.getDescription(), items.get(0).getDescription());
+        assertEquals(item.getRequester(), items.get(0).getRequestId());
+    }
+
+    @Test
+    void findIdsByOwnerOrRequestor_whenOtherUsersAnswerUserRequest_thenIncludeAnsweringItems() {
+        User other = userRepository.save(User.builder().name("other").email("other@mail.ru").build());
+        ItemRequest request = entityManager.persist(ItemRequest.builder().description("need a saw")
+                .requestor(item.getOwner()).build());
+        entityManager.flush();
+        Item answer = itemRepository.save(Item.builder().name("saw").description("saw").available(true)
+                .owner(other).requester(request.getId()).build());
+        itemRepository.save(Item.builder().name("drill").description("drill").available(true).owner(other).build());
+
+        List<Long> ids = itemRepository.findIdsByOwnerOrRequestor(item.getOwner().getId());
+
+        assertEquals(Set.of(item.getId(), answer.getId()), Set.copyOf(ids));
     }
 
     @AfterEach
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class InMemoryItemSearchEngineTest {
+    @Mock
+    ItemRepository itemRepository;
+    @InjectMocks
+    InMemoryItemSearchEngine searchEngine;
+    final User owner = User.builder().id(1L).build();
+    final Item drill = Item.builder().id(1L).name("Drill").description("Cordless drill").available(true).owner(owner).build();
+    final Item saw = Item.builder().id(2L).name("Saw").description("Sharp hand saw").available(true).owner(owner).build();
+    final Item hammer = Item.builder().id(3L).name("Hammer drill").description("Heavy").available(false).owner(owner).build();
+    final Item axe = Item.builder().id(4L).name("Axe").description("Splitting axe").available(true).owner(owner).build();
+
+    @Test
+    void search_whenQueryMatchesNameOrDescription_thenReturnAvailableItemsOnly() {
+        index(drill, saw, hammer);
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> items(invocation.getArgument(0)));
+
+        List<Item> actualItems = searchEngine.search("dRiLl", 0, 10);
+
+        assertEquals(List.of(drill), actualItems);
+    }
+
+    @Test
+    void search_whenQueryShorterThanTrigram_thenAnswerFromItsPostings() {
+        index(drill, saw, hammer);
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> items(invocation.getArgument(0)));
+
+        List<Item> actualItems = searchEngine.search("a", 0, 10);
+
+        assertEquals(List.of(saw), actualItems);
+    }
+
+    @Test
+    void search_whenPaged_thenKeepFromSizeContract() {
+        index(drill, saw);
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> items(invocation.getArgument(0)));
+
+        assertEquals(List.of(drill), searchEngine.search("r", 0, 1));
+        assertEquals(List.of(saw), searchEngine.search("r", 1, 1));
+    }
+
+    @Test
+    void search_whenNoMatch_thenReturnEmptyWithoutDatabaseCall() {
+        index(drill, saw);
+
+        assertTrue(searchEngine.search("nothing", 0, 10).isEmpty());
+        assertTrue(searchEngine.search(" ", 0, 10).isEmpty());
+        verify(itemRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void index_whenItemBecomesUnavailable_thenItemRemoved() {
+        index(drill);
+        drill.setAvailable(false);
+
+        searchEngine.index(drill);
+
+        assertTrue(searchEngine.search("drill", 0, 10).isEmpty());
+    }
+
+    @Test
+    void removeAll_whenInvoked_thenOnlyGivenItemsRemoved() {
+        index(drill, saw);
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> items(invocation.getArgument(0)));
+
+        searchEngine.removeAll(List.of(saw.getId()));
+
+        assertTrue(searchEngine.search("saw", 0, 10).isEmpty());
+        assertEquals(List.of(drill), searchEngine.search("drill", 0, 10));
+    }
+
+    @Test
+    void rebuild_whenInvoked_thenIndexLoadedFromRepository() {
+        when(itemRepository.findAllAfter(anyLong(), any(Pageable.class))).thenReturn(List.of(drill, saw, hammer));
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> items(invocation.getArgument(0)));
+
+        searchEngine.rebuild();
+
+        assertEquals(List.of(saw), searchEngine.search("saw", 0, 10));
+        verify(itemRepository).findAllAfter(eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    void rebuild_whenItemsChangeDuringScan_thenChangesKeptAfterSwap() {
+        index(saw);
+        when(itemRepository.findAllAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            searchEngine.index(axe);
+            searchEngine.removeAll(List.of(saw.getId()));
+            return List.of(drill, saw);
+        });
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> items(invocation.getArgument(0)));
+
+        searchEngine.rebuild();
+
+        assertEquals(List.of(axe), searchEngine.search("axe", 0, 10));
+        assertTrue(searchEngine.search("saw", 0, 10).isEmpty());
+        assertEquals(List.of(drill), searchEngine.search("drill", 0, 10));
+    }
+
+    private void index(Item... items) {
+        for (Item item : items) {
+            searchEngine.index(item);
+        }
+    }
+
+    private List<Item> items(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        return List.of(drill, saw, hammer, axe).stream()
+                .filter(item -> idList.contains(item.getId()))
+                .collect(Collectors.toList());
+    }
+}
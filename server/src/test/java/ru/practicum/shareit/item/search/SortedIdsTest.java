@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortedIdsTest {
+    @Test
+    void add_whenOutOfOrderOrRepeated_thenKeepSortedWithoutDuplicates() {
+        SortedIds ids = new SortedIds();
+
+        for (long id : new long[]{5, 1, 9, 5, 3, 12, 7, 1}) {
+            ids.add(id);
+        }
+
+        assertEquals(6, ids.size());
+        long[] expected = {1, 3, 5, 7, 9, 12};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], ids.get(i));
+        }
+    }
+
+    @Test
+    void remove_whenPresentOrAbsent_thenDropOnlyGivenId() {
+        SortedIds ids = new SortedIds();
+        ids.add(1);
+        ids.add(2);
+        ids.add(3);
+
+        ids.remove(2);
+        ids.remove(4);
+
+        assertEquals(2, ids.size());
+        assertTrue(ids.contains(1));
+        assertFalse(ids.contains(2));
+        assertTrue(ids.contains(3));
+    }
+
+    @Test
+    void trim_whenInvoked_thenKeepIdsAndAcceptMore() {
+        SortedIds ids = new SortedIds();
+        ids.add(1);
+        ids.trim();
+        ids.remove(1);
+        ids.trim();
+
+        ids.add(2);
+
+        assertEquals(1, ids.size());
+        assertEquals(2, ids.get(0));
+    }
+}
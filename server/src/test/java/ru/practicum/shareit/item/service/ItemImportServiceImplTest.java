@@ -0,0 +1,176 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemImportDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ItemImportServiceImplTest {
+    @Mock
+    ItemRepository itemRepository;
+    @Mock
+    UserRepository userRepository;
+    @Mock
+    UserCache userCache;
+    @Mock
+    ItemRequestRepository itemRequestRepository;
+    @Mock
+    ItemSearchEngine itemSearchEngine;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    final User owner = new User(1L, "owner@mail.ru", "owner");
+    ItemImportServiceImpl itemImportService;
+
+    @BeforeEach
+    void setUp() {
+        itemImportService = new ItemImportServiceImpl(Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new ParameterNamesModule()).build(), itemRepository,
+                userRepository, userCache, itemRequestRepository, itemSearchEngine,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void importItems_whenUserNotFound_thenNotFoundExceptionThrown() {
+        when(userCache.find(1L)).thenReturn(Optional.empty());
+
+        NotFoundException e = assertThrows(NotFoundException.class,
+                () -> itemImportService.importItems(1L, body("[]")));
+        assertEquals("User with 1 id not found.", e.getMessage());
+
+        verify(itemRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void importItems_whenJsonArray_thenSaveValidItemsAndReportFailures() throws Exception {
+        when(userCache.find(1L)).thenReturn(Optional.of(owner));
+        when(itemRequestRepository.findIdsByIdIn(Set.of(7L, 8L))).thenReturn(Set.of(8L));
+        when(itemRepository.saveAll(anyIterable())).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+
+        ItemImportDto result = itemImportService.importItems(1L, body("[" +
+                "{\"id\": 99, \"name\": \"drill\", \"description\": \"cordless\", \"available\": true}," +
+                "{\"name\": \" \", \"description\": \"saw\", \"available\": true}," +
+                "{\"name\": \"ladder\", \"description\": \"tall\", \"available\": true, \"requestId\": 7}," +
+                "{\"name\": \"tent\", \"description\": \"two person\", \"available\": false, \"requestId\": 8}" +
+                "]"));
+
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(new ItemImportDto.Failure(1, "Name must not be blank."),
+                new ItemImportDto.Failure(2, "Request with 7 id not found.")), result.getFailures());
+        verify(itemRepository).saveAll(argThat(items -> names(items).equals(List.of("drill", "tent"))
+                && saved(items).stream().allMatch(item -> item.getId() == null)));
+        verify(itemSearchEngine, times(2)).index(any());
+    }
+
+    @Test
+    void importItems_whenNdjsonLongerThanChunk_thenSaveInChunksAndResolveRequestsOnce() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            body.append("{\"name\": \"item ").append(i)
+                    .append("\", \"description\": \"test\", \"available\": true, \"requestId\": 5}\n");
+        }
+        when(userCache.find(1L)).thenReturn(Optional.of(owner));
+        when(itemRequestRepository.findIdsByIdIn(Set.of(5L))).thenReturn(Set.of(5L));
+        when(itemRepository.saveAll(anyIterable())).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+
+        ItemImportDto result = itemImportService.importItems(1L, body(body.toString()));
+
+        assertEquals(120, result.getImported());
+        assertTrue(result.getFailures().isEmpty());
+        verify(itemRepository, times(3)).saveAll(anyIterable());
+        verify(itemRequestRepository, times(1)).findIdsByIdIn(any());
+        verify(userRepository, times(3)).getReferenceById(1L);
+    }
+
+    @Test
+    void importItems_whenChunkRejected_thenRetryRowsOneByOneAndReportConstraint() throws Exception {
+        when(userCache.find(1L)).thenReturn(Optional.of(owner));
+        List<Long> retriedIds = new ArrayList<>();
+        when(itemRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            List<Item> items = saved(invocation.getArgument(0));
+            if (items.size() == 1) {
+                retriedIds.add(items.get(0).getId());
+            }
+            items.forEach(item -> item.setId(7L));
+            if (items.size() > 1 || items.get(0).getName().equals("saw")) {
+                throw new DataIntegrityViolationException("could not execute statement",
+                        new IllegalStateException("Check constraint violation: ITEMS_NAME_CHECK"));
+            }
+            return items;
+        });
+
+        ItemImportDto result = itemImportService.importItems(1L, body(
+                "{\"name\": \"drill\", \"description\": \"cordless\", \"available\": true}\n" +
+                        "{\"name\": \"saw\", \"description\": \"hand saw\", \"available\": true}\n" +
+                        "{\"name\": \"tent\", \"description\": \"two person\", \"available\": true}\n"));
+
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(new ItemImportDto.Failure(1,
+                "Item could not be saved: Check constraint violation: ITEMS_NAME_CHECK")), result.getFailures());
+        verify(itemRepository, times(4)).saveAll(anyIterable());
+        assertEquals(Arrays.asList(null, null, null), retriedIds);
+        verify(itemSearchEngine, times(2)).index(any());
+    }
+
+    @Test
+    void importItems_whenMalformedJson_thenKeepPrecedingItemsAndReportFailure() throws Exception {
+        when(userCache.find(1L)).thenReturn(Optional.of(owner));
+        when(itemRepository.saveAll(anyIterable())).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+
+        ItemImportDto result = itemImportService.importItems(1L, body(
+                "{\"name\": \"drill\", \"description\": \"cordless\", \"available\": true}\n" +
+                        "{\"name\": \"saw\", \"available\": tru}\n" +
+                        "{\"name\": \"tent\", \"description\": \"two person\", \"available\": true}\n"));
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertTrue(result.getFailures().get(0).getError().startsWith("Malformed JSON"));
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Item> saved(Iterable<Item> items) {
+        List<Item> saved = new ArrayList<>();
+        items.forEach(saved::add);
+        return saved;
+    }
+
+    private static List<String> names(Iterable<Item> items) {
+        return saved(items).stream().map(Item::getName).collect(Collectors.toList());
+    }
+}
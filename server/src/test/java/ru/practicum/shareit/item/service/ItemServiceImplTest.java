@@ -7,22 +7,29 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.availability.TimeWindow;
+import ru.practicum.shareit.booking.model.BookingSlot;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentPreview;
+import ru.practicum.shareit.item.model.CommentView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -34,23 +41,29 @@ class ItemServiceImplTest {
     @Mock
     ItemRepository itemRepository;
     @Mock
-    UserRepository userRepository;
+    UserCache userCache;
     @Mock
     BookingRepository bookingRepository;
     @Mock
     CommentRepository commentRepository;
     @Mock
     ItemRequestRepository itemRequestRepository;
+    @Mock
+    ItemSearchEngine itemSearchEngine;
+    @Mock
+    BookingAvailabilityIndex bookingAvailabilityIndex;
     @InjectMocks
     ItemServiceImpl itemService;
     final User user = new User(1L, "test@mail.ru", "test");
-    final Item item = new Item(1L, "test", "test", true, user, 2L, null, null, null);
+    final Item item = new Item(1L, "test", "test", true, user, 2L, null);
     final Comment comment = new Comment(1L, "test", item, user, LocalDateTime.now());
-    final Booking booking = Booking.builder().id(5L).item(item).build();
+    final ItemView itemView = ItemView.of(item);
+    final CommentView commentView = new CommentView(comment.getId(), comment.getText(), item.getId(), user.getName(),
+            comment.getCreated());
 
     @Test
     void create_whenFindUserEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemService.create(item, user.getId()));
         assertEquals("User with 1 id not found.", e.getMessage());
@@ -61,7 +74,7 @@ class ItemServiceImplTest {
     @Test
     void create_whenInvoked_thenReturnItem() {
         Item itemWithoutUser = Item.builder().name("test").description("test").available(true).build();
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.save(any())).thenReturn(item);
 
         Item actualItem = itemService.create(itemWithoutUser, user.getId());
@@ -69,12 +82,13 @@ class ItemServiceImplTest {
         assertEquals(item, actualItem);
         assertEquals(user, actualItem.getOwner());
         verify(itemRepository).save(any());
+        verify(itemSearchEngine).index(item);
     }
 
     @Test
     void create_whenFindItemRequestEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findById(any())).thenReturn(Optional.empty());
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRequestRepository.existsById(any())).thenReturn(false);
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemService.create(item, user.getId()));
         assertEquals("Request with 2 id not found.", e.getMessage());
@@ -84,7 +98,7 @@ class ItemServiceImplTest {
 
     @Test
     void update_whenFindUserEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemService.update(item, item.getId(), user.getId()));
         assertEquals("User with 1 id not found.", e.getMessage());
@@ -92,7 +106,7 @@ class ItemServiceImplTest {
 
     @Test
     void update_whenFindItemEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemService.update(item, item.getId(), user.getId()));
@@ -102,7 +116,7 @@ class ItemServiceImplTest {
     @Test
     void update_whenUserIdAndOwnerIdDontMatch_thenNotFoundExceptionThrown() {
         User newUser = User.builder().id(2L).build();
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(newUser));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(newUser));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemService.update(item, item.getId(), user.getId()));
@@ -111,8 +125,8 @@ class ItemServiceImplTest {
 
     @Test
     void update_whenInvoked_thenReturnItem() {
-        Item newItem = new Item(1L, "name", "desc", false, user, 2L, null, null, null);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        Item newItem = new Item(1L, "name", "desc", false, user, 2L, null);
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
 
         Item actualItem = itemService.update(newItem, item.getId(), user.getId());
@@ -120,11 +134,12 @@ class ItemServiceImplTest {
         assertEquals(newItem.getName(), actualItem.getName());
         assertEquals(newItem.getDescription(), actualItem.getDescription());
         assertEquals(newItem.getAvailable(), actualItem.getAvailable());
+        verify(itemSearchEngine).index(actualItem);
     }
 
     @Test
     void getById_whenFindItemEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemService.getById(item.getId(), user.getId()));
@@ -133,7 +148,7 @@ class ItemServiceImplTest {
 
     @Test
     void getById_whenFindUserEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemService.update(item, item.getId(), user.getId()));
         assertEquals("User with 1 id not found.", e.getMessage());
@@ -142,12 +157,14 @@ class ItemServiceImplTest {
     @Test
     void getById_whenInvoked_thenReturnItem() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
 
-        Item actualItem = itemService.getById(item.getId(), user.getId());
+        ItemView actualItem = itemService.getById(item.getId(), user.getId());
 
-        assertEquals(item, actualItem);
+        assertEquals(item.getId(), actualItem.getId());
+        assertEquals(item.getRequester(), actualItem.getRequestId());
         assertTrue(actualItem.getComments().isEmpty());
+        assertEquals(0L, actualItem.getCommentCount());
         assertNull(actualItem.getLastBooking());
         assertNull(actualItem.getNextBooking());
     }
@@ -155,27 +172,66 @@ class ItemServiceImplTest {
     @Test
     void getById_whenInvoked_thenReturnItemWithCollectionCommentsAndBooking() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(commentRepository.findByItemIn(anyList())).thenReturn(Set.of(comment));
-        when(bookingRepository.findByItemInAndStatusEqualsAndStartLessThanEqualOrderByStartDesc(anyList(), any(), any()))
-                .thenReturn(List.of(booking));
-        when(bookingRepository.findByItemInAndStatusEqualsAndStartAfterOrderByStart(anyList(), any(), any()))
-                .thenReturn(List.of(booking));
-
-        Item actualItem = itemService.getById(item.getId(), user.getId());
-
-        assertEquals(item, actualItem);
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(commentRepository.findNewestByItemIdIn(anyList(), anyInt()))
+                .thenReturn(List.of(new CommentPreview(comment.getId(), comment.getText(), item.getId(), "test",
+                        comment.getCreated(), 12L)));
+        BookingSlot lastBooking = new BookingSlot(5L, LocalDateTime.now().minusDays(1), LocalDateTime.now(),
+                item.getId(), 2L);
+        BookingSlot nextBooking = new BookingSlot(6L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
+                item.getId(), 2L);
+        when(bookingRepository.findLastAndNextByItemIdIn(anyList(), any(), any()))
+                .thenReturn(List.of(lastBooking, nextBooking));
+
+        ItemView actualItem = itemService.getById(item.getId(), user.getId());
+
+        assertEquals(item.getId(), actualItem.getId());
         assertNotNull(actualItem.getComments());
-        assertEquals(Set.of(comment), actualItem.getComments());
+        assertEquals(1, actualItem.getComments().size());
+        assertEquals(comment.getId(), actualItem.getComments().get(0).getId());
+        assertEquals(12L, actualItem.getCommentCount());
         assertNotNull(actualItem.getLastBooking());
-        assertEquals(booking, actualItem.getLastBooking());
+        assertEquals(lastBooking, actualItem.getLastBooking());
         assertNotNull(actualItem.getNextBooking());
-        assertEquals(booking, actualItem.getNextBooking());
+        assertEquals(nextBooking, actualItem.getNextBooking());
+    }
+
+    @Test
+    void getFreeWindows_whenStartNotBeforeEnd_thenValidationExceptionThrown() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> itemService.getFreeWindows(item.getId(), user.getId(), start, start));
+        assertEquals("Start must be before end.", e.getMessage());
+
+        verify(bookingAvailabilityIndex, never()).freeWindows(anyLong(), any(), any());
+    }
+
+    @Test
+    void getFreeWindows_whenItemNotFound_thenNotFoundExceptionThrown() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.existsById(anyLong())).thenReturn(false);
+
+        NotFoundException e = assertThrows(NotFoundException.class,
+                () -> itemService.getFreeWindows(item.getId(), user.getId(), start, start.plusDays(1)));
+        assertEquals("Item with 1 id not found.", e.getMessage());
+    }
+
+    @Test
+    void getFreeWindows_whenInvoked_thenReturnWindowsFromIndex() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        List<TimeWindow> windows = List.of(new TimeWindow(start, start.plusHours(1)));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingAvailabilityIndex.freeWindows(item.getId(), start, start.plusDays(1))).thenReturn(windows);
+
+        assertEquals(windows, itemService.getFreeWindows(item.getId(), user.getId(), start, start.plusDays(1)));
     }
 
     @Test
     void getAll_whenFindUserEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemService.getAll(user.getId(), 1, 1));
         assertEquals("User with 1 id not found.", e.getMessage());
@@ -183,26 +239,39 @@ class ItemServiceImplTest {
 
     @Test
     void getAll_whenInvoked_thenReturnEmptyCollectionItems() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findAllByOwnerIdOrderById(anyLong(), any())).thenReturn(List.of());
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findAllByOwner(anyLong(), any())).thenReturn(List.of());
 
-        List<Item> actualItems = itemService.getAll(user.getId(), 0, 1);
+        List<ItemView> actualItems = itemService.getAll(user.getId(), 0, 1);
 
         assertTrue(actualItems.isEmpty());
     }
 
     @Test
     void getAll_whenInvoked_thenReturnCollectionItems() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findAllByOwnerIdOrderById(anyLong(), any())).thenReturn(List.of(item));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findAllByOwner(anyLong(), any())).thenReturn(List.of(itemView));
 
-        List<Item> actualItems = itemService.getAll(user.getId(), 0, 1);
+        List<ItemView> actualItems = itemService.getAll(user.getId(), 0, 1);
 
         assertFalse(actualItems.isEmpty());
         assertEquals(1, actualItems.size());
         assertEquals(item.getId(), actualItems.get(0).getId());
     }
 
+    @Test
+    void getAll_whenCursorGiven_thenSeekAfterCursor() {
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findAllByOwnerAfter(anyLong(), anyLong(), any()))
+                .thenReturn(List.of(itemView));
+
+        List<ItemView> actualItems = itemService.getAll(user.getId(), PageCursor.of(5L), 1);
+
+        assertEquals(List.of(itemView), actualItems);
+        verify(itemRepository).findAllByOwnerAfter(eq(user.getId()), eq(5L), any());
+        verify(itemRepository, never()).findAllByOwner(anyLong(), any());
+    }
+
     @Test
     void search_whenInvoked_thenReturnEmptyCollectionItems() {
         List<Item> items = itemService.search("", 0, 1);
@@ -212,7 +281,7 @@ class ItemServiceImplTest {
 
     @Test
     void search_whenInvoked_thenReturnCollectionItems() {
-        when(itemRepository.search(anyString(), any())).thenReturn(List.of(item));
+        when(itemSearchEngine.search(anyString(), anyInt(), anyInt())).thenReturn(List.of(item));
 
         List<Item> actualItems = itemService.search("test", 0, 1);
 
@@ -223,46 +292,75 @@ class ItemServiceImplTest {
 
     @Test
     void commented_whenFindUserEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemService.commented(comment, item.getId(), user.getId()));
         assertEquals("User with 1 id not found.", e.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(commentRepository, never()).save(any());
     }
 
     @Test
     void commented_whenFindItemEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(anyLong(), anyLong(), any(), any()))
+                .thenReturn(false);
+        when(itemRepository.existsById(anyLong())).thenReturn(false);
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemService.commented(comment, item.getId(), user.getId()));
         assertEquals("Item with 1 id not found.", e.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(commentRepository, never()).save(any());
     }
 
     @Test
     void commented_whenFindBookerEmpty_thenValidationExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByBookerAndItemAndStatusEqualsAndEndBefore(any(), any(), any(), any()))
-                .thenReturn(List.of());
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(anyLong(), anyLong(), any(), any()))
+                .thenReturn(false);
+        when(itemRepository.existsById(anyLong())).thenReturn(true);
 
         ValidationException e = assertThrows(ValidationException.class, () -> itemService.commented(comment, item.getId(), user.getId()));
         assertEquals("Refused access to add comment.", e.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(commentRepository, never()).save(any());
     }
 
     @Test
     void commented_whenInvoked_thenReturnComment() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByBookerAndItemAndStatusEqualsAndEndBefore(any(), any(), any(), any()))
-                .thenReturn(List.of(booking));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(eq(user.getId()), eq(item.getId()),
+                eq(BookingStatus.APPROVED), any())).thenReturn(true);
+        when(itemRepository.getReferenceById(item.getId())).thenReturn(item);
         when(commentRepository.save(any())).thenReturn(comment);
 
         Comment actualComment = itemService.commented(comment, item.getId(), user.getId());
 
         assertEquals(comment, actualComment);
+        assertEquals(item, comment.getItem());
         verify(commentRepository).save(any());
+        verify(itemRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getComments_whenItemNotFound_thenNotFoundExceptionThrown() {
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.existsById(item.getId())).thenReturn(false);
+
+        NotFoundException e = assertThrows(NotFoundException.class,
+                () -> itemService.getComments(item.getId(), user.getId(), null, 10));
+        assertEquals("Item with 1 id not found.", e.getMessage());
+    }
+
+    @Test
+    void getComments_whenCursorGiven_thenSeekAfterCursor() {
+        LocalDateTime created = LocalDateTime.now();
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
+        when(commentRepository.findAllByItemIdAfter(eq(item.getId()), eq(created), eq(5L), any()))
+                .thenReturn(List.of(commentView));
+
+        List<CommentView> comments = itemService.getComments(item.getId(), user.getId(), PageCursor.of(created, 5L),
+                10);
+
+        assertEquals(List.of(commentView), comments);
+        verify(commentRepository, never()).findAllByItemId(anyLong(), any());
     }
-}
\ No newline at end of file
+}
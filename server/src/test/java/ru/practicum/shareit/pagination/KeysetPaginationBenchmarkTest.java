@@ -0,0 +1,114 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequestView;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+@RunWith(SpringRunner.class)
+@DataJpaTest(showSql = false)
+class KeysetPaginationBenchmarkTest {
+    static int PAGE_SIZE = 10;
+    static int DEEP_PAGE = 10_000;
+    static int ROWS = (DEEP_PAGE + 2) * PAGE_SIZE;
+    static int WARMUP = 50;
+    static int ITERATIONS = 200;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+    long ownerId;
+    long readerId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = 1L;
+        readerId = 2L;
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'owner', 'owner@bench.ru')", ownerId);
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'reader', 'reader@bench.ru')", readerId);
+
+        LocalDateTime created = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Object[]> requests = new ArrayList<>(ROWS);
+        List<Object[]> items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            requests.add(new Object[]{i + 1, "request " + i, ownerId, Timestamp.valueOf(created.plusSeconds(i / 2))});
+            items.add(new Object[]{i + 1, "item " + i, "description " + i, ownerId});
+        }
+        jdbcTemplate.batchUpdate("insert into requests (id, description, requestor_id, created) values (?, ?, ?, ?)", requests);
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, id_owner) " +
+                "values (?, ?, ?, true, ?)", items);
+    }
+
+    @Test
+    void itemsByOwner_offsetVersusSeek() {
+        for (int page : new int[]{1, DEEP_PAGE}) {
+            List<ItemView> anchors = anchors(offset -> itemRepository.findAllByOwner(ownerId,
+                    OffsetPageRequest.of(offset, PAGE_SIZE)), page);
+            report("GET /items page " + (page + 1),
+                    i -> itemRepository.findAllByOwner(ownerId,
+                            OffsetPageRequest.of(page * PAGE_SIZE + i, PAGE_SIZE)),
+                    i -> itemRepository.findAllByOwnerAfter(ownerId, anchors.get(i).getId(),
+                            PageRequest.of(0, PAGE_SIZE)));
+        }
+    }
+
+    @Test
+    void requestFeed_offsetVersusSeek() {
+        for (int page : new int[]{1, DEEP_PAGE}) {
+            List<ItemRequestView> anchors = anchors(offset -> itemRequestRepository
+                    .findAllByRequestorIdIsNot(readerId, OffsetPageRequest.of(offset, PAGE_SIZE)),
+                    page);
+            report("GET /requests/all page " + (page + 1),
+                    i -> itemRequestRepository.findAllByRequestorIdIsNot(readerId,
+                            OffsetPageRequest.of(page * PAGE_SIZE + i, PAGE_SIZE)),
+                    i -> itemRequestRepository.findAllByRequestorIdIsNotAfter(readerId, anchors.get(i).getCreated(),
+                            anchors.get(i).getId(), PageRequest.of(0, PAGE_SIZE)));
+        }
+    }
+
+    /*
+     * H2 hands back the previous result of a statement whose parameters did not change, so every iteration
+     * starts from a different row: anchors.get(i) is the row just before offset page * PAGE_SIZE + i.
+     */
+    private static <T> List<T> anchors(IntFunction<List<T>> offsetQuery, int page) {
+        return offsetQuery.apply(page * PAGE_SIZE - 1);
+    }
+
+    private void report(String name, IntFunction<List<?>> offset, IntFunction<List<?>> seek) {
+        double offsetMicros = measure(offset);
+        double seekMicros = measure(seek);
+        System.out.printf("%-30s offset %10.1f us   seek %10.1f us   x%.1f%n", name, offsetMicros, seekMicros,
+                offsetMicros / seekMicros);
+    }
+
+    private static double measure(IntFunction<List<?>> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            assertEquals(PAGE_SIZE, query.apply(i % PAGE_SIZE).size());
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.apply(i % PAGE_SIZE);
+        }
+        return (System.nanoTime() - started) / 1_000.0 / ITERATIONS;
+    }
+}
@@ -14,8 +14,10 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestView;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.model.User;
 
@@ -23,8 +25,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -41,6 +45,7 @@ class ItemRequestControllerTest {
     final ItemRequestShortDto itemRequestShortDto = new ItemRequestShortDto("test");
     final ItemRequest itemRequest = new ItemRequest(1L, "test", new User(),
             LocalDateTime.now().plusHours(1), null);
+    final ItemRequestView itemRequestView = ItemRequestView.of(itemRequest);
 
     @SneakyThrows
     @Test
@@ -78,7 +83,7 @@ class ItemRequestControllerTest {
     @SneakyThrows
     @Test
     void getAllByUser_whenInvoked_thenReturnResponseStatusOkWithCollectionRequestsInBody() {
-        when(itemRequestService.getAllByUser(anyLong())).thenReturn(List.of(itemRequest));
+        when(itemRequestService.getAllByUser(anyLong())).thenReturn(List.of(itemRequestView));
 
         mvc.perform(MockMvcRequestBuilders.get("/requests")
                         .header("X-Sharer-User-Id", 1L)
@@ -112,7 +117,7 @@ class ItemRequestControllerTest {
     @SneakyThrows
     @Test
     void getAll_whenInvoked_thenReturnResponseStatusOkWithCollectionRequestsInBody() {
-        when(itemRequestService.getAll(anyLong(), anyInt(), anyInt())).thenReturn(List.of(itemRequest));
+        when(itemRequestService.getAll(anyLong(), anyInt(), anyInt())).thenReturn(List.of(itemRequestView));
 
         mvc.perform(MockMvcRequestBuilders.get("/requests/all")
                         .header("X-Sharer-User-Id", 1L)
@@ -142,6 +147,65 @@ class ItemRequestControllerTest {
         verify(itemRequestService).getAll(anyLong(), anyInt(), anyInt());
     }
 
+    @SneakyThrows
+    @Test
+    void getAll_whenFromSizePageFull_thenNextCursorHeaderLeadsToNextPage() {
+        when(itemRequestService.getAll(anyLong(), anyInt(), anyInt())).thenReturn(List.of(itemRequestView));
+        when(itemRequestService.getAll(anyLong(), any(PageCursor.class), anyInt())).thenReturn(List.of());
+
+        String nextCursor = mvc.perform(MockMvcRequestBuilders.get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(PageCursor.NEXT_CURSOR_HEADER))
+                .andReturn().getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER);
+        mvc.perform(MockMvcRequestBuilders.get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1")
+                        .param("cursor", nextCursor)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*]").isEmpty())
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+
+        verify(itemRequestService).getAll(1L, 0, 1);
+        verify(itemRequestService).getAll(eq(1L), argThat((PageCursor cursor) ->
+                itemRequest.getCreated().equals(cursor.getTime()) && itemRequest.getId().equals(cursor.getId())), eq(1));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAll_whenCursorGivenAndPageFull_thenReturnNextCursorHeader() {
+        String cursor = PageCursor.of(itemRequest.getCreated().minusDays(1), 0L).encode();
+        when(itemRequestService.getAll(anyLong(), any(PageCursor.class), anyInt()))
+                .thenReturn(List.of(itemRequestView));
+
+        mvc.perform(MockMvcRequestBuilders.get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", cursor)
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].id").value(itemRequest.getId()))
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        PageCursor.of(itemRequest.getCreated(), itemRequest.getId()).encode()));
+
+        verify(itemRequestService).getAll(anyLong(), any(PageCursor.class), eq(1));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAll_whenCursorOfIdKeyedList_thenReturnResponseStatusBadRequest() {
+        mvc.perform(MockMvcRequestBuilders.get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", PageCursor.of(0L).encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(itemRequestService, never()).getAll(anyLong(), any(PageCursor.class), anyInt());
+    }
+
     @SneakyThrows
     @Test
     void getById_whenUncorrectedId_thenThrowNotFoundException() {
@@ -158,7 +222,7 @@ class ItemRequestControllerTest {
     @SneakyThrows
     @Test
     void getById_whenInvoked_thenReturnResponseStatusOkWithRequestInBody() {
-        when(itemRequestService.getById(anyLong(), anyLong())).thenReturn(itemRequest);
+        when(itemRequestService.getById(anyLong(), anyLong())).thenReturn(itemRequestView);
 
         mvc.perform(MockMvcRequestBuilders.get("/requests/{requestId}", 1L)
                         .header("X-Sharer-User-Id", 1L)
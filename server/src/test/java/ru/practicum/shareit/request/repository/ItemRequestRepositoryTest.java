@@ -0,0 +1,64 @@
+package ru.practicum.shareit.request.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestView;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+class ItemRequestRepositoryTest {
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+    @Autowired
+    UserRepository userRepository;
+    User requestor;
+    User reader;
+    List<ItemRequest> requests;
+
+    @BeforeEach
+    void setUp() {
+        requestor = userRepository.save(User.builder().name("requestor").email("requestor@mail.ru").build());
+        reader = userRepository.save(User.builder().name("reader").email("reader@mail.ru").build());
+        itemRequestRepository.save(ItemRequest.builder().description("own").requestor(reader)
+                .created(LocalDateTime.of(2020, 1, 1, 12, 0)).build());
+        LocalDateTime created = LocalDateTime.of(2020, 1, 1, 12, 0);
+        requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(itemRequestRepository.save(ItemRequest.builder()
+                    .description("test " + i)
+                    .requestor(requestor)
+                    .created(created.plusHours(i / 2))
+                    .build()));
+        }
+    }
+
+    @Test
+    void findAllByRequestorIdIsNotAfter_whenPagedByCursor_thenReturnOthersRequestsOnceInOrder() {
+        List<ItemRequestView> page = itemRequestRepository.findAllByRequestorIdIsNot(reader.getId(),
+                PageRequest.of(0, 2));
+        List<Long> seen = new ArrayList<>();
+        while (!page.isEmpty()) {
+            page.forEach(request -> seen.add(request.getId()));
+            ItemRequestView last = page.get(page.size() - 1);
+            page = itemRequestRepository.findAllByRequestorIdIsNotAfter(reader.getId(), last.getCreated(), last.getId(),
+                    PageRequest.of(0, 2));
+        }
+
+        assertEquals(requests.stream().map(ItemRequest::getId).collect(Collectors.toList()), seen);
+    }
+}
@@ -8,12 +8,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exception.NotFoundException;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestView;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,6 +25,7 @@ import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,19 +34,20 @@ class ItemRequestServiceImplTest {
     @Mock
     ItemRequestRepository itemRequestRepository;
     @Mock
-    UserRepository userRepository;
+    UserCache userCache;
     @Mock
     ItemRepository itemRepository;
     @InjectMocks
     ItemRequestServiceImpl itemRequestService;
     final User user = new User(1L, "test@mail.ru", "test");
-    final Item item = Item.builder().requester(1L).name("test").build();
+    final ItemView item = new ItemView(2L, "test", "test", true, 1L);
     final ItemRequest request = new ItemRequest(1L, "test", user, LocalDateTime.now(), null);
+    final ItemRequestView requestView = ItemRequestView.of(request);
 
     @Test
     void create_whenInvoked_thenReturnRequestWithUserSet() {
         ItemRequest requestWithoutUser = ItemRequest.builder().description("test").build();
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRequestRepository.save(any())).thenReturn(request);
 
         ItemRequest actualRequest = itemRequestService.create(user.getId(), requestWithoutUser);
@@ -55,7 +59,7 @@ class ItemRequestServiceImplTest {
 
     @Test
     void create_whenFindUserByIdEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemRequestService.create(user.getId(), request));
         assertEquals("User with 1 id not found.", e.getMessage());
@@ -65,50 +69,50 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getAllByUser_whenInvoked_thenReturnCollectionRequests() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(anyLong())).thenReturn(List.of(request));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(anyLong())).thenReturn(List.of(requestView));
 
-        List<ItemRequest> actualRequests = itemRequestService.getAllByUser(user.getId());
+        List<ItemRequestView> actualRequests = itemRequestService.getAllByUser(user.getId());
 
         assertFalse(actualRequests.isEmpty());
         assertEquals(1, actualRequests.size());
         assertEquals(request.getId(), actualRequests.get(0).getId());
-        assertEquals(request.getRequestor(), actualRequests.get(0).getRequestor());
+        assertEquals(request.getDescription(), actualRequests.get(0).getDescription());
         assertTrue(actualRequests.get(0).getItems().isEmpty());
     }
 
     @Test
     void getAllByUser_whenRequestsHaveItems_thenReturnCollectionRequestsWithCollectionItems() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(anyLong())).thenReturn(List.of(request));
-        when(itemRepository.findByRequesterIn(anyCollection())).thenReturn(Set.of(item));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(anyLong())).thenReturn(List.of(requestView));
+        when(itemRepository.findAllByRequestIdIn(anyCollection())).thenReturn(List.of(item));
 
-        List<ItemRequest> actualRequests = itemRequestService.getAllByUser(user.getId());
+        List<ItemRequestView> actualRequests = itemRequestService.getAllByUser(user.getId());
 
         assertFalse(actualRequests.isEmpty());
         assertEquals(1, actualRequests.size());
         assertEquals(request.getId(), actualRequests.get(0).getId());
-        assertEquals(request.getRequestor(), actualRequests.get(0).getRequestor());
+        assertEquals(request.getDescription(), actualRequests.get(0).getDescription());
         assertEquals(Set.of(item), actualRequests.get(0).getItems());
     }
 
     @Test
     void getAllByUser_whenInvokedCollectionRequestsEmpty_thenReturnEmptyCollectionRequests() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(anyLong())).thenReturn(List.of());
 
-        List<ItemRequest> actualRequests = itemRequestService.getAllByUser(user.getId());
+        List<ItemRequestView> actualRequests = itemRequestService.getAllByUser(user.getId());
 
         assertTrue(actualRequests.isEmpty());
     }
 
     @Test
     void getAll_whenInvoked_thenReturnCollectionRequests() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(anyLong()))
-                .thenReturn(List.of(request));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRequestRepository.findAllByRequestorIdIsNot(anyLong(), any()))
+                .thenReturn(List.of(requestView));
 
-        List<ItemRequest> actualRequests = itemRequestService.getAll(user.getId(), 0, 1);
+        List<ItemRequestView> actualRequests = itemRequestService.getAll(user.getId(), 0, 1);
 
         assertFalse(actualRequests.isEmpty());
         assertEquals(1, actualRequests.size());
@@ -118,44 +122,71 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getAll_whenInvokedCollectionRequestsEmpty_thenReturnEmptyCollectionRequests() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(anyLong()))
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRequestRepository.findAllByRequestorIdIsNot(anyLong(), any()))
                 .thenReturn(List.of());
 
-        List<ItemRequest> actualRequests = itemRequestService.getAll(user.getId(), 0, 1);
+        List<ItemRequestView> actualRequests = itemRequestService.getAll(user.getId(), 0, 1);
 
         assertTrue(actualRequests.isEmpty());
     }
 
     @Test
     void getAll_whenRequestsHaveItems_thenReturnCollectionRequestsWithCollectionItems() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(anyLong())).thenReturn(List.of(request));
-        when(itemRepository.findByRequesterIn(anyCollection())).thenReturn(Set.of(item));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRequestRepository.findAllByRequestorIdIsNot(anyLong(), any())).thenReturn(List.of(requestView));
+        when(itemRepository.findAllByRequestIdIn(anyCollection())).thenReturn(List.of(item));
 
-        List<ItemRequest> actualRequests = itemRequestService.getAll(user.getId(), 0, 1);
+        List<ItemRequestView> actualRequests = itemRequestService.getAll(user.getId(), 0, 1);
 
         assertFalse(actualRequests.isEmpty());
         assertEquals(1, actualRequests.size());
         assertEquals(request.getId(), actualRequests.get(0).getId());
-        assertEquals(request.getRequestor(), actualRequests.get(0).getRequestor());
+        assertEquals(request.getDescription(), actualRequests.get(0).getDescription());
         assertEquals(Set.of(item), actualRequests.get(0).getItems());
     }
 
+    @Test
+    void getAll_whenCursorGiven_thenSeekAfterCursor() {
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRequestRepository.findAllByRequestorIdIsNotAfter(anyLong(), any(), anyLong(), any()))
+                .thenReturn(List.of(requestView));
+
+        List<ItemRequestView> actualRequests = itemRequestService.getAll(user.getId(),
+                PageCursor.of(request.getCreated(), request.getId()), 1);
+
+        assertEquals(List.of(requestView), actualRequests);
+        verify(itemRequestRepository).findAllByRequestorIdIsNotAfter(eq(user.getId()), eq(request.getCreated()),
+                eq(request.getId()), any());
+        verify(itemRequestRepository, never()).findAllByRequestorIdIsNot(anyLong(), any());
+    }
+
+    @Test
+    void getAll_whenCursorNull_thenReturnFirstPage() {
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
+        when(itemRequestRepository.findAllByRequestorIdIsNot(anyLong(), any()))
+                .thenReturn(List.of(requestView));
+
+        List<ItemRequestView> actualRequests = itemRequestService.getAll(user.getId(), (PageCursor) null, 1);
+
+        assertEquals(List.of(requestView), actualRequests);
+        verify(itemRequestRepository, never()).findAllByRequestorIdIsNotAfter(anyLong(), any(), anyLong(), any());
+    }
+
     @Test
     void getById_whenInvoked_thenReturnRequestWithoutItems() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(request));
 
-        ItemRequest actualItemRequest = itemRequestService.getById(user.getId(), anyLong());
+        ItemRequestView actualItemRequest = itemRequestService.getById(user.getId(), anyLong());
 
-        assertEquals(request, actualItemRequest);
+        assertEquals(request.getId(), actualItemRequest.getId());
         assertTrue(actualItemRequest.getItems().isEmpty());
     }
 
     @Test
     void getById_whenFindRequestByIdIsEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemRequestService.getById(user.getId(), anyLong()));
@@ -164,7 +195,7 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getById_whenFindUserByIdIsEmpty_thenNotFoundExceptionThrown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.find(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class, () -> itemRequestService.getById(user.getId(), anyLong()));
         assertEquals("User with 1 id not found.", e.getMessage());
@@ -172,13 +203,13 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getById_whenRequestHasItems_thenReturnRequestWithCollectionItems() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.find(anyLong())).thenReturn(Optional.of(user));
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(request));
-        when(itemRepository.findByRequesterIn(anyCollection())).thenReturn(Set.of(item));
+        when(itemRepository.findAllByRequestIdIn(anyCollection())).thenReturn(List.of(item));
 
-        ItemRequest actualItemRequest = itemRequestService.getById(user.getId(), anyLong());
+        ItemRequestView actualItemRequest = itemRequestService.getById(user.getId(), anyLong());
 
-        assertEquals(request, actualItemRequest);
+        assertEquals(request.getId(), actualItemRequest.getId());
         assertEquals(Set.of(item), actualItemRequest.getItems());
     }
 }
\ No newline at end of file
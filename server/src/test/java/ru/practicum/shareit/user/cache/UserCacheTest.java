@@ -0,0 +1,99 @@
+package ru.practicum.shareit.user.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.datasource.PrimaryReads;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class UserCacheTest {
+    @Mock
+    UserRepository userRepository;
+    SimpleMeterRegistry meterRegistry;
+    UserCache userCache;
+    final User user = new User(1L, "test", "test@mail.ru");
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = new UserCache(userRepository, new PrimaryReads(),
+                meterRegistry, 2, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void find_whenCalledTwice_thenLoadOnceAndCountHitAndMiss() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        User first = userCache.find(1L).orElseThrow();
+        User second = userCache.find(1L).orElseThrow();
+
+        assertEquals(user.getEmail(), first.getEmail());
+        assertNotSame(first, second);
+        verify(userRepository, times(1)).findById(1L);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void find_whenUserUnknown_thenReturnEmptyAndLookUpAgainNextTime() {
+        when(userRepository.findById(2L)).thenReturn(Optional.empty(), Optional.of(new User(2L, "new", "new@mail.ru")));
+
+        assertTrue(userCache.find(2L).isEmpty());
+        assertEquals("new", userCache.find(2L).orElseThrow().getName());
+    }
+
+    @Test
+    void invalidate_whenInvoked_thenReloadUser() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user), Optional.of(new User(1L, "updated", "test@mail.ru")));
+        userCache.find(1L);
+
+        userCache.invalidate(1L);
+
+        assertEquals("updated", userCache.find(1L).orElseThrow().getName());
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void find_whenConcurrentMissesOnSameId_thenLoadOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            loading.await();
+            return Optional.of(user);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Optional<User>>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> userCache.find(1L)));
+        }
+        Thread.sleep(100);
+        loading.countDown();
+        for (Future<Optional<User>> result : results) {
+            assertEquals(user.getId(), result.get().orElseThrow().getId());
+        }
+        executor.shutdown();
+
+        verify(userRepository, times(1)).findById(1L);
+    }
+}
@@ -7,10 +7,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.counter.BookingCounters;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +35,22 @@ import static org.mockito.Mockito.when;
 class UserServiceImplTest {
     @Mock
     UserRepository userRepository;
+    @Mock
+    UserCache userCache;
+    @Mock
+    ItemSearchEngine itemSearchEngine;
+    @Mock
+    EntityManagerFactory entityManagerFactory;
+    @Mock
+    Cache cache;
+    @Mock
+    ItemRepository itemRepository;
+    @Mock
+    ItemRequestRepository itemRequestRepository;
+    @Mock
+    BookingCounters bookingCounters;
+    @Mock
+    BookingAvailabilityIndex bookingAvailabilityIndex;
     @InjectMocks
     UserServiceImpl userService;
     final User user = new User(1L, "test@mail.ru", "test");
@@ -77,6 +103,7 @@ class UserServiceImplTest {
 
         assertEquals(newUser.getName(), actualUser.getName());
         assertEquals(newUser.getEmail(), actualUser.getEmail());
+        verify(userCache).invalidate(newUser.getId());
     }
 
     @Test
@@ -98,8 +125,19 @@ class UserServiceImplTest {
 
     @Test
     void delete_whenInvoked() {
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(itemRepository.findIdsByOwnerOrRequestor(anyLong())).thenReturn(List.of(4L, 5L));
+
         userService.delete(anyLong());
 
+        verify(itemRepository).raiseVersionOfAllCommentedOrBookedBy(anyLong());
+        verify(itemRequestRepository).raiseVersionOfAllAnsweredByOwner(anyLong());
         verify(userRepository).deleteById(anyLong());
+        verify(userCache).invalidate(any());
+        verify(itemSearchEngine).removeAll(List.of(4L, 5L));
+        verify(cache).evict(Item.class);
+        verify(cache).evict(ItemRequest.class);
+        verify(bookingCounters).invalidateAll();
+        verify(bookingAvailabilityIndex).invalidateAll();
     }
 }
\ No newline at end of file